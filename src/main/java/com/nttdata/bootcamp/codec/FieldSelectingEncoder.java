@@ -0,0 +1,110 @@
+package com.nttdata.bootcamp.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps a Jackson encoder (JSON, Smile, CBOR) and applies {@link FieldSelection}:
+ * when {@code fields} is present each element is converted to a tree and only the
+ * selected properties are kept; otherwise the delegate encodes as usual.
+ */
+public class FieldSelectingEncoder implements HttpMessageEncoder<Object> {
+
+    private static final ResolvableType JSON_NODE_TYPE = ResolvableType.forClass(JsonNode.class);
+
+    private final AbstractJackson2Encoder delegate;
+
+    public FieldSelectingEncoder(AbstractJackson2Encoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return delegate.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, @Nullable MimeType mimeType,
+                                   @Nullable Map<String, Object> hints) {
+        Set<String> fields = FieldSelection.fromHints(hints);
+        if (fields.isEmpty()) {
+            return delegate.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        Publisher<JsonNode> selected = inputStream instanceof Mono
+                ? Mono.from(inputStream).map(value -> select(value, fields))
+                : Flux.from(inputStream).map(value -> select(value, fields));
+        return delegate.encode(selected, bufferFactory, JSON_NODE_TYPE, mimeType, hints);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        Set<String> fields = FieldSelection.fromHints(hints);
+        if (fields.isEmpty()) {
+            return delegate.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        }
+        return delegate.encodeValue(select(value, fields), bufferFactory, JSON_NODE_TYPE, mimeType, hints);
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return delegate.getEncodableMimeTypes();
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes(ResolvableType elementType) {
+        return delegate.getEncodableMimeTypes(elementType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return delegate.getStreamingMediaTypes();
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType,
+                                              @Nullable MediaType mediaType, ServerHttpRequest request,
+                                              ServerHttpResponse response) {
+        Map<String, Object> hints = new HashMap<>(
+                delegate.getEncodeHints(actualType, elementType, mediaType, request, response));
+        Set<String> fields = FieldSelection.parse(request);
+        if (!fields.isEmpty()) {
+            hints.put(FieldSelection.HINT, fields);
+        }
+        return hints;
+    }
+
+    // objects keep the selected properties; arrays apply it to each object element
+    private JsonNode select(Object value, Set<String> fields) {
+        JsonNode tree = delegate.getObjectMapper().valueToTree(value);
+        if (tree instanceof ObjectNode) {
+            ((ObjectNode) tree).retain(fields);
+        } else if (tree != null && tree.isArray()) {
+            tree.forEach(element -> {
+                if (element instanceof ObjectNode) {
+                    ((ObjectNode) element).retain(fields);
+                }
+            });
+        }
+        return tree;
+    }
+}
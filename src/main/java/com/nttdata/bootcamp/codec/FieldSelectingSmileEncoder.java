@@ -0,0 +1,53 @@
+package com.nttdata.bootcamp.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * {@link FieldSelectingEncoder} for Smile. The default Smile slot of the codec
+ * configurer only takes a {@link Jackson2SmileEncoder}, so this one extends it and
+ * routes encoding through the selecting wrapper.
+ */
+public class FieldSelectingSmileEncoder extends Jackson2SmileEncoder {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final FieldSelectingEncoder selecting;
+
+    public FieldSelectingSmileEncoder(ObjectMapper smileMapper) {
+        super(smileMapper, SMILE);
+        this.selecting = new FieldSelectingEncoder(new Jackson2SmileEncoder(smileMapper, SMILE));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, @Nullable MimeType mimeType,
+                                   @Nullable Map<String, Object> hints) {
+        return selecting.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return selecting.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(@Nullable ResolvableType actualType, ResolvableType elementType,
+                                              @Nullable MediaType mediaType, ServerHttpRequest request,
+                                              ServerHttpResponse response) {
+        return selecting.getEncodeHints(actualType, elementType, mediaType, request, response);
+    }
+}
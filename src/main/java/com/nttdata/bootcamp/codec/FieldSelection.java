@@ -0,0 +1,40 @@
+package com.nttdata.bootcamp.codec;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@code ?fields=accountNumber,amount}: the encoders only write the listed
+ * properties of each element. The selection travels as an encode hint.
+ */
+public final class FieldSelection {
+
+    public static final String PARAM = "fields";
+    public static final String HINT = FieldSelection.class.getName() + ".FIELDS";
+
+    private FieldSelection() {
+    }
+
+    public static Set<String> parse(ServerHttpRequest request) {
+        String value = request.getQueryParams().getFirst(PARAM);
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Set<String> fromHints(Map<String, Object> hints) {
+        Object fields = hints != null ? hints.get(HINT) : null;
+        return fields instanceof Set ? (Set<String>) fields : Collections.emptySet();
+    }
+}
@@ -0,0 +1,187 @@
+package com.nttdata.bootcamp.codec;
+
+import com.google.protobuf.CodedOutputStream;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.MovementDto;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import org.springframework.web.server.NotAcceptableStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Protobuf wire format for {@link MovementDto} and {@link Movement}, written by hand
+ * with {@link CodedOutputStream} (schema in {@code src/main/proto/movement.proto}).
+ * A single value is one message; a {@link Flux} or a collection is a stream of
+ * length-delimited messages, as {@code parseDelimitedFrom} expects. Honors
+ * {@link FieldSelection}.
+ */
+public class MovementProtobufEncoder implements HttpMessageEncoder<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final List<MimeType> MIME_TYPES = Collections.singletonList(PROTOBUF);
+
+    // Declared types must be movements or collections of them. Undeclared ones (Object,
+    // Mono<?>) are accepted too: codec registration then files this as an "object" writer,
+    // after the JSON one registered in CodecConfig, so */* keeps resolving to JSON and
+    // protobuf needs an explicit Accept. Their value is checked when encoding and
+    // anything else answers 406.
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        ResolvableType type = Collection.class.isAssignableFrom(elementType.toClass())
+                ? elementType.asCollection().getGeneric(0)
+                : elementType;
+        return isSupported(type.toClass())
+                && (mimeType == null || (PROTOBUF.isCompatibleWith(mimeType) && !mimeType.isWildcardType()));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, @Nullable MimeType mimeType,
+                                   @Nullable Map<String, Object> hints) {
+        Set<String> fields = FieldSelection.fromHints(hints);
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(value -> bufferFactory.wrap(toBytes(value, fields, false)))
+                    .flux();
+        }
+        return Flux.from(inputStream)
+                .map(value -> bufferFactory.wrap(toBytes(value, fields, true)));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return bufferFactory.wrap(toBytes(value, FieldSelection.fromHints(hints), false));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return Collections.singletonList(PROTOBUF);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType,
+                                              @Nullable MediaType mediaType, ServerHttpRequest request,
+                                              ServerHttpResponse response) {
+        Set<String> fields = FieldSelection.parse(request);
+        return fields.isEmpty() ? Collections.emptyMap() : Collections.singletonMap(FieldSelection.HINT, fields);
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return type == Object.class
+                || MovementDto.class.isAssignableFrom(type) || Movement.class.isAssignableFrom(type);
+    }
+
+    // ============================
+    // WIRE FORMAT
+    // ============================
+    private static byte[] toBytes(Object value, Set<String> fields, boolean delimited) {
+        if (value instanceof Collection) {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(128);
+            for (Object element : (Collection<?>) value) {
+                byte[] framed = toBytes(element, fields, true);
+                stream.write(framed, 0, framed.length);
+            }
+            return stream.toByteArray();
+        }
+        if (!(value instanceof MovementDto) && !(value instanceof Movement)) {
+            // not committed yet: the error handler still answers 406
+            throw new NotAcceptableStatusException(
+                    "No protobuf schema for " + (value == null ? "null" : value.getClass().getName()));
+        }
+        try {
+            ByteArrayOutputStream message = new ByteArrayOutputStream(128);
+            CodedOutputStream out = CodedOutputStream.newInstance(message);
+            if (value instanceof MovementDto) {
+                write((MovementDto) value, fields, out);
+            } else {
+                write((Movement) value, fields, out);
+            }
+            out.flush();
+            if (!delimited) {
+                return message.toByteArray();
+            }
+            ByteArrayOutputStream framed = new ByteArrayOutputStream(message.size() + 5);
+            CodedOutputStream frame = CodedOutputStream.newInstance(framed);
+            frame.writeUInt32NoTag(message.size());
+            frame.flush();
+            message.writeTo(framed);
+            return framed.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // message MovementDto
+    private static void write(MovementDto dto, Set<String> fields, CodedOutputStream out) throws IOException {
+        writeString(out, fields, "dni", 1, dto.getDni());
+        writeString(out, fields, "accountNumber", 2, dto.getAccountNumber());
+        writeString(out, fields, "movementNumber", 3, dto.getMovementNumber());
+        writeDouble(out, fields, "amount", 4, dto.getAmount());
+    }
+
+    // message Movement
+    private static void write(Movement movement, Set<String> fields, CodedOutputStream out) throws IOException {
+        writeString(out, fields, "id", 1, movement.getId());
+        writeString(out, fields, "dni", 2, movement.getDni());
+        writeString(out, fields, "accountNumber", 3, movement.getAccountNumber());
+        writeString(out, fields, "typeTransaction", 4, movement.getTypeTransaction());
+        writeString(out, fields, "movementNumber", 5, movement.getMovementNumber());
+        writeDouble(out, fields, "amount", 6, movement.getAmount());
+        writeString(out, fields, "status", 7, movement.getStatus());
+        writeDouble(out, fields, "commission", 8, movement.getCommission());
+        writeDate(out, fields, "creationDate", 9, movement.getCreationDate());
+        writeDate(out, fields, "modificationDate", 10, movement.getModificationDate());
+    }
+
+    private static boolean skip(Set<String> fields, String name, Object value) {
+        return value == null || (!fields.isEmpty() && !fields.contains(name));
+    }
+
+    private static void writeString(CodedOutputStream out, Set<String> fields, String name, int number,
+                                    String value) throws IOException {
+        if (!skip(fields, name, value)) {
+            out.writeString(number, value);
+        }
+    }
+
+    private static void writeDouble(CodedOutputStream out, Set<String> fields, String name, int number,
+                                    Double value) throws IOException {
+        if (!skip(fields, name, value)) {
+            out.writeDouble(number, value);
+        }
+    }
+
+    // epoch millis
+    private static void writeDate(CodedOutputStream out, Set<String> fields, String name, int number,
+                                  Date value) throws IOException {
+        if (!skip(fields, name, value)) {
+            out.writeInt64(number, value.getTime());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nttdata.bootcamp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nttdata.bootcamp.codec.CborListEncoder;
+import com.nttdata.bootcamp.codec.FieldSelectingEncoder;
+import com.nttdata.bootcamp.codec.FieldSelectingSmileEncoder;
+import com.nttdata.bootcamp.codec.MovementProtobufEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class CodecConfig {
+
+    // ============================
+    // RESPONSE ENCODINGS
+    // ============================
+    // Accept: application/json (default), application/x-jackson-smile, application/cbor
+    // or application/x-protobuf, plus ?fields=a,b on all of them. Smile and CBOR mappers
+    // come from Boot's builder, so dates and naming match the JSON output.
+    // Runs after Boot's Jackson customizer (order 0), which sets the plain JSON encoder.
+    // Custom writers are consulted before the defaults, so JSON is registered first among
+    // them too: */* keeps resolving to JSON and the other formats need an explicit Accept.
+    @Bean
+    @Order(1)
+    public CodecCustomizer compactCodecsCustomizer(ObjectMapper objectMapper,
+                                                   Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+
+        return configurer -> {
+            FieldSelectingEncoder jsonEncoder = new FieldSelectingEncoder(new Jackson2JsonEncoder(objectMapper));
+            configurer.defaultCodecs().jackson2JsonEncoder(jsonEncoder);
+            configurer.customCodecs().register(jsonEncoder);
+            configurer.defaultCodecs().jackson2SmileEncoder(new FieldSelectingSmileEncoder(smileMapper));
+            configurer.customCodecs().register(new FieldSelectingEncoder(new CborListEncoder(cborMapper)));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+            configurer.customCodecs().register(new MovementProtobufEncoder());
+        };
+    }
+}
@@ -1,16 +1,25 @@
 package com.nttdata.bootcamp.config;
 
 import com.nttdata.bootcamp.events.EventKafka;
+import com.nttdata.bootcamp.kafka.ProcessedRecordsInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverOptions;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -18,6 +27,8 @@ public class KafkaConsumerConfig {
     private final String bootstrapAddress = "localhost:9092";
     private final String topic = "payment-topic";
 
+    // not used by the listeners: only created if something asks for it
+    @Lazy
     @Bean
     public KafkaReceiver<String, EventKafka<?>> kafkaReceiver() {
 
@@ -37,4 +48,33 @@ public class KafkaConsumerConfig {
 
         return KafkaReceiver.create(options);
     }
+
+    // ============================
+    // @KafkaListener CONTAINERS
+    // ============================
+    // Boot defaults, but consumer threads come from the blocking executor
+    // (virtual threads on Java 21+), so listener work never lands on an event loop.
+    // auto-startup=false keeps them stopped (e.g. the CDS training run of the Dockerfile);
+    // a requested storage migration holds them until it finishes (MovementStorageMigration).
+    // stopImmediate: on shutdown a container stops after the current record and commits
+    // what was processed, instead of finishing the whole poll.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            @Qualifier(SchedulerConfig.BLOCKING_EXECUTOR) ExecutorService blockingExecutor,
+            ProcessedRecordsInterceptor processedRecordsInterceptor,
+            MovementStorageMigration movementStorageMigration,
+            @Value("${movement.kafka.listener.auto-startup:true}") boolean autoStartup) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.getContainerProperties()
+                .setConsumerTaskExecutor(new ConcurrentTaskExecutor(blockingExecutor));
+        factory.getContainerProperties().setStopImmediate(true);
+        factory.setRecordInterceptor(processedRecordsInterceptor);
+        factory.setAutoStartup(autoStartup && !movementStorageMigration.holdsListeners());
+        return factory;
+    }
 }
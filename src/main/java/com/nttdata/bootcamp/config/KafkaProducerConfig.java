@@ -3,8 +3,11 @@ package com.nttdata.bootcamp.config;
 import com.nttdata.bootcamp.events.EventKafka;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
@@ -32,4 +35,20 @@ public class KafkaProducerConfig {
 
         return KafkaSender.create(senderOptions);
     }
+
+    // ============================
+    // RETRY / DLT PUBLISHER
+    // ============================
+    // Forwards failed records to the retry topics and the DLT. Type headers
+    // are kept so the retry listeners deserialize the concrete event class.
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate(KafkaProperties kafkaProperties) {
+
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildProducerProperties());
+
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
 }
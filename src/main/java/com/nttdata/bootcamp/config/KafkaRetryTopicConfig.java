@@ -0,0 +1,46 @@
+package com.nttdata.bootcamp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Non-blocking retries for every {@code @KafkaListener}: a failed record is
+ * forwarded to {@code <topic>-retry-<delay>} topics with exponential backoff and,
+ * once attempts are exhausted (or straight away for malformed events), to
+ * {@code <topic>-dlt}, so the main partition keeps moving.
+ */
+@Configuration
+public class KafkaRetryTopicConfig {
+
+    @Value("${movement.kafka.retry.attempts:4}")
+    private int attempts;
+
+    @Value("${movement.kafka.retry.initial-interval-ms:1000}")
+    private long initialIntervalMs;
+
+    @Value("${movement.kafka.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${movement.kafka.retry.max-interval-ms:30000}")
+    private long maxIntervalMs;
+
+    @Bean
+    public RetryTopicConfiguration movementRetryTopics(KafkaTemplate<String, Object> retryKafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialIntervalMs, multiplier, maxIntervalMs)
+                // poison messages: retrying cannot fix them
+                .notRetryOn(Arrays.asList(
+                        IllegalArgumentException.class,
+                        NullPointerException.class,
+                        ClassCastException.class))
+                .dltHandlerMethod("kafkaServiceImpl", "onDeadLetter")
+                .create(retryKafkaTemplate);
+    }
+}
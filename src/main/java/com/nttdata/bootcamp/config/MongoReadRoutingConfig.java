@@ -0,0 +1,63 @@
+package com.nttdata.bootcamp.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes report and listing reads to secondaries while writes and
+ * read-your-write lookups stay on the primary.
+ * <p>
+ * The default {@code reactiveMongoTemplate} (used by the repositories) keeps
+ * the primary read preference. {@code reportMongoTemplate} shares the same
+ * database factory and converter but reads with the configured preference.
+ */
+@Configuration
+public class MongoReadRoutingConfig {
+
+    public static final String REPORT_TEMPLATE = "reportMongoTemplate";
+
+    @Value("${movement.mongo.read.preference:secondaryPreferred}")
+    private String readPreference;
+
+    @Value("${movement.mongo.read.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+
+    @Primary
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(
+            ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+            MongoConverter converter) {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, converter);
+    }
+
+    @Bean(REPORT_TEMPLATE)
+    public ReactiveMongoTemplate reportMongoTemplate(
+            ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+            MongoConverter converter) {
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, converter);
+        template.setReadPreference(readPreference(readPreference, maxStalenessSeconds));
+        return template;
+    }
+
+    // ============================
+    // READ PREFERENCE
+    // ============================
+    static ReadPreference readPreference(String mode, long maxStalenessSeconds) {
+        // primary does not accept maxStaleness; every other mode does (min 90s)
+        if ("primary".equalsIgnoreCase(mode) || maxStalenessSeconds <= 0) {
+            return ReadPreference.valueOf(mode);
+        }
+        return ReadPreference.valueOf(mode, Collections.<TagSet>emptyList(),
+                maxStalenessSeconds, TimeUnit.SECONDS);
+    }
+}
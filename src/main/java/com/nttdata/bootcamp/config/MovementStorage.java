@@ -0,0 +1,95 @@
+package com.nttdata.bootcamp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Storage mode of {@code Movement} ({@code movement.storage.mode}):
+ * <ul>
+ *     <li>{@code standard}: plain {@value #STANDARD_COLLECTION} collection.</li>
+ *     <li>{@code timeseries}: {@value #TIMESERIES_COLLECTION} time-series collection,
+ *     {@code accountNumber} as metaField and {@code creationDate} as timeField
+ *     (MongoDB 5.0+; updateCommission/updateMovement/delete need MongoDB 7.0+).</li>
+ * </ul>
+ * {@code Movement} resolves its collection through {@link #collectionName()}, so the
+ * repository and templates follow the mode. The collection and its indexes are created
+ * at startup, before any listener writes: (accountNumber, creationDate) for the account
+ * reads, creationDate for the time-range scans (reconciliation) and movementNumber.
+ */
+@Slf4j
+@Component(MovementStorage.BEAN_NAME)
+public class MovementStorage implements InitializingBean {
+
+    public static final String BEAN_NAME = "movementStorage";
+    public static final String STANDARD_COLLECTION = "movement";
+    public static final String TIMESERIES_COLLECTION = "movement_ts";
+
+    private static final Duration INIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${movement.storage.mode:standard}")
+    private String mode;
+
+    @Value("${movement.storage.timeseries.granularity:HOURS}")
+    private Granularity granularity;
+
+    public MovementStorage(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isTimeSeries() {
+        return "timeseries".equalsIgnoreCase(mode);
+    }
+
+    public String collectionName() {
+        return isTimeSeries() ? TIMESERIES_COLLECTION : STANDARD_COLLECTION;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String collection = collectionName();
+        try {
+            createIfTimeSeries(collection)
+                    .then(mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                            .on("accountNumber", Sort.Direction.ASC)
+                            .on("creationDate", Sort.Direction.DESC)
+                            .named("account_creationDate")))
+                    .then(mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                            .on("creationDate", Sort.Direction.ASC)
+                            .named("creationDate")))
+                    .then(mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                            .on("movementNumber", Sort.Direction.ASC)
+                            .named("movementNumber")))
+                    .block(INIT_TIMEOUT);
+            log.info("✔ Movement storage: {} ({})", collection, mode);
+        } catch (RuntimeException e) {
+            // Mongo unreachable at boot: repositories still work, indexes are retried next start
+            log.warn("Could not initialize movement storage {}: {}", collection, e.toString());
+        }
+    }
+
+    private Mono<Void> createIfTimeSeries(String collection) {
+        if (!isTimeSeries()) {
+            return Mono.empty();
+        }
+        CollectionOptions options = CollectionOptions.empty()
+                .timeSeries(CollectionOptions.TimeSeriesOptions.timeSeries("creationDate")
+                        .metaField("accountNumber")
+                        .granularity(granularity));
+        return mongoTemplate.collectionExists(collection)
+                .flatMap(exists -> exists
+                        ? Mono.empty()
+                        : mongoTemplate.createCollection(collection, options).then());
+    }
+}
@@ -0,0 +1,181 @@
+package com.nttdata.bootcamp.config;
+
+import com.nttdata.bootcamp.entity.MigrationCheckpoint;
+import com.nttdata.bootcamp.entity.Movement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Copies the plain {@value MovementStorage#STANDARD_COLLECTION} collection into the
+ * time-series one. Runs when started with {@code --migrate-movements} (or
+ * {@code movement.storage.migrate=true}) in {@code timeseries} mode; documents are
+ * streamed in creation order and inserted in batches, the source collection is left
+ * untouched.
+ * <p>
+ * Each batch skips the _ids already in the target (the time-series collection does
+ * not enforce a unique _id), so a target that already holds movements, or the overlap
+ * left by an interrupted batch, is not copied twice. Progress is checkpointed in
+ * {@code migration_checkpoint} after every batch, and a restarted run resumes from
+ * the last checkpointed creation date. A final catch-up pass from the last checkpoint
+ * copies what was written to the source during the main pass.
+ * <p>
+ * While a migration is requested the Kafka listener containers are created stopped
+ * (see {@link KafkaConsumerConfig}) and started here once it finishes, so this
+ * instance does not ingest into the target before it is complete.
+ */
+@Slf4j
+@Component
+public class MovementStorageMigration implements ApplicationRunner {
+
+    private static final String MIGRATE_OPTION = "migrate-movements";
+    private static final String CHECKPOINT_ID = MovementStorage.TIMESERIES_COLLECTION;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MovementStorage movementStorage;
+    private final ApplicationArguments args;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+
+    @Value("${movement.storage.migrate:false}")
+    private boolean migrate;
+
+    @Value("${movement.storage.migrate.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${movement.kafka.listener.auto-startup:true}")
+    private boolean listenerAutoStartup;
+
+    public MovementStorageMigration(ReactiveMongoTemplate mongoTemplate, MovementStorage movementStorage,
+                                    ApplicationArguments args,
+                                    ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.movementStorage = movementStorage;
+        this.args = args;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    /**
+     * True when this start migrates: the listener containers wait for it.
+     */
+    public boolean holdsListeners() {
+        return (migrate || args.containsOption(MIGRATE_OPTION)) && movementStorage.isTimeSeries();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrate && !args.containsOption(MIGRATE_OPTION)) {
+            return;
+        }
+        if (!movementStorage.isTimeSeries()) {
+            log.warn("Movement migration skipped: movement.storage.mode is not timeseries");
+            return;
+        }
+        Long copied = migrate().block();
+        log.info("✔ Movimientos migrados a {}: {}", MovementStorage.TIMESERIES_COLLECTION, copied);
+        if (listenerAutoStartup) {
+            listenerRegistry.ifAvailable(registry -> registry.getListenerContainers()
+                    .forEach(MessageListenerContainer::start));
+        }
+    }
+
+    public Mono<Long> migrate() {
+        return mongoTemplate.findById(CHECKPOINT_ID, MigrationCheckpoint.class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(checkpoint -> checkpoint.isPresent() ? resume(checkpoint.get()) : start());
+    }
+
+    private Mono<Long> start() {
+        return mongoTemplate.save(new MigrationCheckpoint(CHECKPOINT_ID, null, 0L, false, new Date()))
+                .flatMap(this::copyAndCatchUp);
+    }
+
+    private Mono<Long> resume(MigrationCheckpoint checkpoint) {
+        if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            log.info("Movement migration already completed ({} copied)", checkpoint.getCopied());
+            return Mono.just(0L);
+        }
+        log.info("Resuming movement migration from {}", checkpoint.getLastCreationDate());
+        return copyAndCatchUp(checkpoint);
+    }
+
+    private Mono<Long> copyAndCatchUp(MigrationCheckpoint checkpoint) {
+        return copyFrom(checkpoint)
+                .flatMap(copied -> mongoTemplate.findById(CHECKPOINT_ID, MigrationCheckpoint.class)
+                        .flatMap(this::copyFrom)
+                        .doOnNext(caughtUp -> log.info("Movement migration catch-up pass: {}", caughtUp))
+                        .map(caughtUp -> copied + caughtUp))
+                .flatMap(copied -> mongoTemplate.updateFirst(
+                                Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                                new Update().set("completed", true).set("modificationDate", new Date()),
+                                MigrationCheckpoint.class)
+                        .thenReturn(copied));
+    }
+
+    private Mono<Long> copyFrom(MigrationCheckpoint checkpoint) {
+        // time-series documents need their timeField
+        Criteria criteria = checkpoint.getLastCreationDate() != null
+                ? Criteria.where("creationDate").gte(checkpoint.getLastCreationDate())
+                : Criteria.where("creationDate").ne(null);
+        Query source = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "creationDate"));
+
+        return mongoTemplate.indexOps(MovementStorage.STANDARD_COLLECTION)
+                .ensureIndex(new Index().on("creationDate", Sort.Direction.ASC).named("creationDate"))
+                .thenMany(mongoTemplate.find(source, Movement.class, MovementStorage.STANDARD_COLLECTION))
+                .buffer(batchSize)
+                .concatMap(batch -> notYetCopied(batch)
+                        .flatMap(missing -> missing.isEmpty()
+                                ? Mono.just(0L)
+                                : mongoTemplate.insert(missing, MovementStorage.TIMESERIES_COLLECTION).count())
+                        .flatMap(inserted -> checkpoint(batch.get(batch.size() - 1).getCreationDate(), inserted)
+                                .thenReturn(inserted)))
+                .reduce(0L, Long::sum);
+    }
+
+    // the batch is sorted by creationDate: its bounds keep the lookup on a few buckets
+    private Mono<List<Movement>> notYetCopied(List<Movement> batch) {
+        List<String> ids = batch.stream().map(Movement::getId).collect(Collectors.toList());
+        Query copied = Query.query(Criteria.where("_id").in(ids)
+                .and("creationDate").gte(batch.get(0).getCreationDate())
+                .lte(batch.get(batch.size() - 1).getCreationDate()));
+        copied.fields().include("_id");
+
+        return mongoTemplate.find(copied, Movement.class, MovementStorage.TIMESERIES_COLLECTION)
+                .map(Movement::getId)
+                .collect(Collectors.toSet())
+                .map(existing -> without(batch, existing));
+    }
+
+    private static List<Movement> without(List<Movement> batch, Set<String> existing) {
+        return existing.isEmpty()
+                ? batch
+                : batch.stream().filter(m -> !existing.contains(m.getId())).collect(Collectors.toList());
+    }
+
+    private Mono<Void> checkpoint(Date lastCreationDate, long inserted) {
+        Update update = new Update()
+                .set("lastCreationDate", lastCreationDate)
+                .inc("copied", inserted)
+                .set("modificationDate", new Date());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)), update,
+                MigrationCheckpoint.class).then();
+    }
+}
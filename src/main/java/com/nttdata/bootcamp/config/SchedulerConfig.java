@@ -0,0 +1,73 @@
+package com.nttdata.bootcamp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Scheduler policy of the service:
+ * <ul>
+ *     <li>HTTP and Mongo IO stay on the Netty / driver event loops, never block there.</li>
+ *     <li>Kafka listener threads run on {@link #BLOCKING_EXECUTOR}: virtual threads on Java 21+,
+ *     otherwise platform threads.</li>
+ *     <li>Blocking work inside reactive pipelines (files, admin clients, ...) is shifted to
+ *     {@link #BLOCKING_SCHEDULER}: the same virtual threads, otherwise a bounded-elastic pool.</li>
+ * </ul>
+ * The virtual-thread executor is looked up reflectively so the build keeps targeting Java 11.
+ */
+@Slf4j
+@Configuration
+public class SchedulerConfig {
+
+    public static final String BLOCKING_EXECUTOR = "blockingExecutor";
+    public static final String BLOCKING_SCHEDULER = "blockingScheduler";
+
+    @Value("${movement.scheduler.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Bean(name = BLOCKING_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService blockingExecutor() {
+        ExecutorService executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (executor != null) {
+            log.info("Blocking work runs on virtual threads");
+            return executor;
+        }
+        log.info("Virtual threads disabled or not available on Java {}, using platform threads",
+                System.getProperty("java.specification.version"));
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("movement-blocking-" + thread.getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean(name = BLOCKING_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler blockingScheduler(ExecutorService blockingExecutor) {
+        if (blockingExecutor instanceof ThreadPoolExecutor) {
+            // platform threads: keep Reactor's bounded-elastic caps and queueing
+            return Schedulers.newBoundedElastic(
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                    BLOCKING_SCHEDULER);
+        }
+        return Schedulers.fromExecutorService(blockingExecutor, BLOCKING_SCHEDULER);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.nttdata.bootcamp.config;
+
+import com.nttdata.bootcamp.kafka.ConsumerConcurrencyController;
+import com.nttdata.bootcamp.kafka.ConsumerLagMonitor;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.ExtractService;
+import com.nttdata.bootcamp.service.HotAccountService;
+import com.nttdata.bootcamp.service.KafkaService;
+import com.nttdata.bootcamp.service.ReconciliationService;
+import com.nttdata.bootcamp.service.VelocityService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    // ============================
+    // LAZY INIT EXCLUSIONS
+    // ============================
+    // With spring.main.lazy-initialization (fast-startup profile) only beans that are
+    // used get created. @KafkaListener and @Scheduled methods are only registered when
+    // their bean is created, so those beans stay eager: consuming starts at boot.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerMovementBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                KafkaService.class,
+                MovementStorage.class,
+                BalanceService.class,
+                ExtractService.class,
+                ReconciliationService.class,
+                VelocityService.class,
+                HotAccountService.class,
+                ConsumerLagMonitor.class,
+                ConsumerConcurrencyController.class,
+                StartupTimingListener.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nttdata.bootcamp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ConsumerStartedEvent;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Time from JVM start until the application is ready and until the first Kafka
+ * consumer is running, as gauges ({@code movement.startup.ready},
+ * {@code movement.startup.consumer-started}) and in the log. The per-step
+ * breakdown is available at {@code /actuator/startup}.
+ * <p>
+ * With {@code -Dmovement.startup.cds-training=true} the application exits once ready:
+ * used by the Dockerfile to record the class list of a full startup into the
+ * CDS archive ({@code -XX:ArchiveClassesAtExit}).
+ */
+@Slf4j
+@Component
+public class StartupTimingListener {
+
+    public static final String CDS_TRAINING_PROPERTY = "movement.startup.cds-training";
+
+    private final ConfigurableApplicationContext context;
+
+    private volatile double readySeconds = Double.NaN;
+    private volatile double consumerStartedSeconds = Double.NaN;
+
+    public StartupTimingListener(ConfigurableApplicationContext context, MeterRegistry meterRegistry) {
+        this.context = context;
+        Gauge.builder("movement.startup.ready", this, listener -> listener.readySeconds)
+                .description("Seconds from JVM start until the application was ready")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("movement.startup.consumer-started", this, listener -> listener.consumerStartedSeconds)
+                .description("Seconds from JVM start until the first Kafka consumer started")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readySeconds = uptimeSeconds();
+        log.info("✔ Aplicación lista en {} s desde el arranque de la JVM", readySeconds);
+
+        if (Boolean.getBoolean(CDS_TRAINING_PROPERTY)) {
+            log.info("CDS training run finished, exiting");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    @EventListener(ConsumerStartedEvent.class)
+    public void onConsumerStarted() {
+        if (Double.isNaN(consumerStartedSeconds)) {
+            consumerStartedSeconds = uptimeSeconds();
+            log.info("✔ Primer consumidor Kafka iniciado en {} s desde el arranque de la JVM",
+                    consumerStartedSeconds);
+        }
+    }
+
+    private static double uptimeSeconds() {
+        return ManagementFactory.getRuntimeMXBean().getUptime() / 1000d;
+    }
+}
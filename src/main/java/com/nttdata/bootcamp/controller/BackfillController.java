@@ -0,0 +1,50 @@
+package com.nttdata.bootcamp.controller;
+
+import com.nttdata.bootcamp.entity.dto.BackfillJobDto;
+import com.nttdata.bootcamp.entity.dto.BackfillRequestDto;
+import com.nttdata.bootcamp.service.BackfillService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/backfill")
+public class BackfillController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackfillController.class);
+
+    private final BackfillService backfillService;
+
+    public BackfillController(BackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    // ============================
+    // START / RESUME BACKFILL
+    // ============================
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<BackfillJobDto> startBackfill(@Valid @RequestBody BackfillRequestDto request) {
+        LOGGER.info("Starting backfill {} format={} parallelism={}",
+                request.getPath(), request.getFormat(), request.getParallelism());
+        return backfillService.start(request)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    // ============================
+    // BACKFILL STATUS
+    // ============================
+    @GetMapping("/{id}")
+    public Mono<BackfillJobDto> findBackfill(@PathVariable String id) {
+        return backfillService.findJob(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Backfill not found")));
+    }
+}
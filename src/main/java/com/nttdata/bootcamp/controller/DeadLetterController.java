@@ -0,0 +1,37 @@
+package com.nttdata.bootcamp.controller;
+
+import com.nttdata.bootcamp.entity.dto.DltReplayDto;
+import com.nttdata.bootcamp.kafka.DeadLetterReplayService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/dlt")
+public class DeadLetterController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterController.class);
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    public DeadLetterController(DeadLetterReplayService deadLetterReplayService) {
+        this.deadLetterReplayService = deadLetterReplayService;
+    }
+
+    // ============================
+    // REPLAY <topic>-dlt INTO <topic>
+    // ============================
+    @PostMapping("/replay/{topic}")
+    public Mono<DltReplayDto> replay(@PathVariable String topic) {
+        LOGGER.info("Replaying DLT of topic {}", topic);
+        return deadLetterReplayService.replay(topic)
+                .map(count -> new DltReplayDto(topic, count))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.nttdata.bootcamp.controller;
+
+import com.nttdata.bootcamp.entity.dto.ExtractJobDto;
+import com.nttdata.bootcamp.entity.dto.ExtractRequestDto;
+import com.nttdata.bootcamp.service.ExtractService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/extract")
+public class ExtractController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExtractController.class);
+
+    private final ExtractService extractService;
+
+    public ExtractController(ExtractService extractService) {
+        this.extractService = extractService;
+    }
+
+    // ============================
+    // START EXTRACT
+    // ============================
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<ExtractJobDto> startExtract(@Valid @RequestBody ExtractRequestDto request) {
+        LOGGER.info("Starting extract {} - {} accounts={}",
+                request.getFrom(), request.getTo(), request.getAccountNumbers());
+        return extractService.start(request);
+    }
+
+    // ============================
+    // EXTRACT STATUS
+    // ============================
+    @GetMapping("/{id}")
+    public Mono<ExtractJobDto> findExtract(@PathVariable String id) {
+        return extractService.findJob(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Extract not found")));
+    }
+
+    // ============================
+    // DOWNLOAD (zero-copy file region)
+    // ============================
+    @GetMapping("/{id}/files/{name}")
+    public Mono<Void> downloadFile(@PathVariable String id, @PathVariable String name,
+                                   ServerHttpResponse response) {
+        LOGGER.info("Downloading extract file {}/{}", id, name);
+        return extractService.findFile(id, name)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found")))
+                .flatMap(file -> {
+                    response.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+                    response.getHeaders().setContentDisposition(
+                            ContentDisposition.attachment().filename(name).build());
+                    long size = file.toFile().length();
+                    return ((ZeroCopyHttpOutputMessage) response).writeWith(file, 0, size);
+                });
+    }
+}
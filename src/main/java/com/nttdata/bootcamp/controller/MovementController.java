@@ -1,18 +1,32 @@
 package com.nttdata.bootcamp.controller;
 
+import com.nttdata.bootcamp.entity.AccountBalance;
 import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.AccountBatchRequestDto;
+import com.nttdata.bootcamp.entity.dto.AccountMovementsDto;
 import com.nttdata.bootcamp.entity.dto.MovementDto;
+import com.nttdata.bootcamp.service.BalanceService;
 import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -22,9 +36,14 @@ public class MovementController {
     private static final Logger LOGGER = LoggerFactory.getLogger(MovementController.class);
 
     private final MovementService movementService;
+    private final BalanceService balanceService;
+    private final VelocityService velocityService;
 
-    public MovementController(MovementService movementService) {
+    public MovementController(MovementService movementService, BalanceService balanceService,
+                              VelocityService velocityService) {
         this.movementService = movementService;
+        this.balanceService = balanceService;
+        this.velocityService = velocityService;
     }
 
     // ============================
@@ -47,6 +66,28 @@ public class MovementController {
                 .doOnNext(m -> LOGGER.info("Movement found: {}", m));
     }
 
+    // ============================
+    // FIND BY ACCOUNT NUMBERS (batch)
+    // ============================
+    // One group per requested account, emitted as soon as the next account starts
+    // (Accept: application/x-ndjson streams them); accounts without movements come last.
+    @PostMapping("/batch")
+    public Flux<AccountMovementsDto> findMovementsByAccounts(@Valid @RequestBody AccountBatchRequestDto request) {
+        List<String> accountNumbers = request.getAccountNumbers().stream()
+                .distinct()
+                .collect(Collectors.toList());
+        return Flux.defer(() -> {
+            Set<String> pending = new LinkedHashSet<>(accountNumbers);
+            return movementService.findByAccountNumbers(accountNumbers, request.getFrom(), request.getTo(),
+                            request.getLimitPerAccount())
+                    .bufferUntilChanged(Movement::getAccountNumber)
+                    .map(movements -> new AccountMovementsDto(movements.get(0).getAccountNumber(), movements))
+                    .doOnNext(group -> pending.remove(group.getAccountNumber()))
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(pending))
+                            .map(accountNumber -> new AccountMovementsDto(accountNumber, Collections.emptyList())));
+        }).doOnSubscribe(s -> LOGGER.info("Searching movements for {} accounts", accountNumbers.size()));
+    }
+
     // ============================
     // FIND BY MOVEMENT NUMBER
     // ============================
@@ -57,6 +98,23 @@ public class MovementController {
         return movementService.findByNumber(numberMovement);
     }
 
+    // ============================
+    // BALANCE (read model, key lookup)
+    // ============================
+    @GetMapping("/balance/{accountNumber}")
+    public Mono<AccountBalance> findBalance(@PathVariable String accountNumber) {
+        LOGGER.info("Searching balance for account {}", accountNumber);
+        return balanceService.findBalance(accountNumber)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Balance not found, rebuild it with POST /balance/" + accountNumber + "/rebuild")));
+    }
+
+    @PostMapping("/balance/{accountNumber}/rebuild")
+    public Mono<AccountBalance> rebuildBalance(@PathVariable String accountNumber) {
+        LOGGER.info("Rebuilding balance for account {}", accountNumber);
+        return balanceService.rebuild(accountNumber);
+    }
+
     // ============================
     // UPDATE COMMISSION
     // ============================
@@ -68,13 +126,21 @@ public class MovementController {
 
         LOGGER.info("Updating commission for movement {}", numberMovement);
 
+        // findByNumber may hand the same instance to concurrent readers: copy, don't mutate
         return movementService.findByNumber(numberMovement)
                 .switchIfEmpty(Mono.error(new RuntimeException("Movement not found")))
-                .flatMap(existing -> {
-                    existing.setCommission(commission);
-                    existing.setModificationDate(new Date());
-                    return movementService.saveMovement(existing);
-                });
+                .map(existing -> new Movement(
+                        existing.getId(),
+                        existing.getDni(),
+                        existing.getAccountNumber(),
+                        existing.getTypeTransaction(),
+                        existing.getMovementNumber(),
+                        existing.getAmount(),
+                        existing.getStatus(),
+                        commission,
+                        existing.getCreationDate(),
+                        new Date()))
+                .flatMap(movementService::saveMovement);
     }
 
     // ============================
@@ -91,7 +157,8 @@ public class MovementController {
 
         LOGGER.info("Saving transfer origin {}", movement);
 
-        return movementService.saveMovement(movement);
+        return movementService.saveMovement(movement)
+                .doOnNext(velocityService::record);
     }
 
     // ============================
@@ -108,7 +175,8 @@ public class MovementController {
 
         LOGGER.info("Saving transfer destination {}", movement);
 
-        return movementService.saveMovement(movement);
+        return movementService.saveMovement(movement)
+                .doOnNext(velocityService::record);
     }
 
     // ============================
@@ -148,11 +216,26 @@ public class MovementController {
     // ============================
     private Mono<Movement> fallBackMovement(String param, Throwable ex) {
         LOGGER.error("Fallback triggered for {}, error={}", param, ex.toString());
+        if (isOverload(ex)) {
+            return Mono.error(serviceUnavailable(ex));
+        }
         return Mono.just(new Movement());
     }
 
     private Mono<Void> fallBackVoid(String param, Throwable ex) {
         LOGGER.error("Fallback VOID triggered for {}, error={}", param, ex.toString());
+        if (isOverload(ex)) {
+            return Mono.error(serviceUnavailable(ex));
+        }
         return Mono.empty();
     }
+
+    // Open circuit / full bulkhead: answer 503 fast instead of an empty body
+    private static boolean isOverload(Throwable ex) {
+        return ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException;
+    }
+
+    private static ResponseStatusException serviceUnavailable(Throwable ex) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+    }
 }
@@ -0,0 +1,48 @@
+package com.nttdata.bootcamp.controller;
+
+import com.nttdata.bootcamp.entity.dto.ReconciliationReportDto;
+import com.nttdata.bootcamp.service.ReconciliationService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/reconciliation")
+public class ReconciliationController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconciliationController.class);
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    // ============================
+    // START RECONCILIATION (yyyy-MM-dd)
+    // ============================
+    @PostMapping("/{day}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<ReconciliationReportDto> startReconciliation(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        LOGGER.info("Starting ledger reconciliation for {}", day);
+        return reconciliationService.start(day);
+    }
+
+    // ============================
+    // RECONCILIATION REPORT
+    // ============================
+    @GetMapping("/{id}")
+    public Mono<ReconciliationReportDto> findReconciliation(@PathVariable String id) {
+        return reconciliationService.findJob(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Reconciliation not found")));
+    }
+}
@@ -2,17 +2,25 @@ package com.nttdata.bootcamp.controller;
 
 import com.nttdata.bootcamp.entity.Movement;
 import com.nttdata.bootcamp.entity.dto.MovementDto;
+import com.nttdata.bootcamp.entity.dto.VelocityDto;
+import com.nttdata.bootcamp.jfr.JfrTrace;
+import com.nttdata.bootcamp.jfr.ReportEvent;
 import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 @CrossOrigin(origins = "*")
@@ -22,10 +30,15 @@ public class ReportController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReportController.class);
 
+    // Thread-safe, shared by every request (SimpleDateFormat is not)
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
     private final MovementService movementService;
+    private final VelocityService velocityService;
 
-    public ReportController(MovementService movementService) {
+    public ReportController(MovementService movementService, VelocityService velocityService) {
         this.movementService = movementService;
+        this.velocityService = velocityService;
     }
 
     // ============================
@@ -34,9 +47,11 @@ public class ReportController {
     private Mono<Date> parseDate(String date) {
         return Mono.fromCallable(() -> {
             try {
-                return new SimpleDateFormat("dd-MM-yyyy").parse(date);
-            } catch (ParseException e) {
-                throw new RuntimeException("Invalid date format: " + date);
+                return Date.from(LocalDate.parse(date, DATE_FORMAT)
+                        .atStartOfDay(ZoneId.systemDefault())
+                        .toInstant());
+            } catch (DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format: " + date);
             }
         });
     }
@@ -67,11 +82,10 @@ public class ReportController {
                     LOGGER.info("Searching commissions for account {} between {} and {}",
                             accountNumber, date1, date2);
 
-                    return movementService.findCommissionByAccountNumber(accountNumber)
-                            .filter(m -> m.getCreationDate().after(start)
-                                    && m.getCreationDate().before(end))
+                    return movementService.findCommissionByAccountNumberAndDateRange(accountNumber, start, end)
                             .map(this::buildDto);
-                });
+                })
+                .as(report -> JfrTrace.flux(() -> new ReportEvent("commissions", accountNumber), report));
     }
 
     // ============================
@@ -91,11 +105,10 @@ public class ReportController {
                     LOGGER.info("Searching movements for product {} between {} and {}",
                             accountNumber, date1, date2);
 
-                    return movementService.findByAccountNumber(accountNumber)
-                            .filter(m -> m.getCreationDate().after(start)
-                                    && m.getCreationDate().before(end))
+                    return movementService.findByAccountNumberAndDateRange(accountNumber, start, end)
                             .map(this::buildDto);
-                });
+                })
+                .as(report -> JfrTrace.flux(() -> new ReportEvent("product", accountNumber), report));
     }
 
     // ============================
@@ -108,6 +121,15 @@ public class ReportController {
 
         return movementService.findByAccountNumber(accountNumber)
                 .map(this::buildDto)
-                .take(10); // take es REACTIVO, NO bloquea
+                .take(10) // take es REACTIVO, NO bloquea
+                .as(report -> JfrTrace.flux(() -> new ReportEvent("top-movements", accountNumber), report));
+    }
+
+    // ============================
+    // VELOCITY (last minute / hour / day, in memory)
+    // ============================
+    @GetMapping("/velocity/{accountNumber}")
+    public Mono<VelocityDto> findVelocity(@PathVariable String accountNumber) {
+        return velocityService.findVelocity(accountNumber);
     }
 }
@@ -0,0 +1,57 @@
+package com.nttdata.bootcamp.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+// Balance read model, one document per account (key lookup)
+@Data
+@NoArgsConstructor
+@ToString
+@Document(collection = "account_balance")
+public class AccountBalance {
+
+    @Id
+    private String accountNumber;
+
+    private Double balance;
+    private Long movementCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date lastMovementDate;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date modificationDate;
+
+    // bumped by every change: a rebuild only overwrites the version it read
+    private Long version;
+
+    // set by the first rebuild; until then the document only tracks pending ids
+    @JsonIgnore
+    private Boolean built;
+
+    // movements being stored and not yet applied / being deleted and not yet reverted
+    @JsonIgnore
+    private List<String> pendingIds;
+
+    @JsonIgnore
+    private List<String> revertingIds;
+
+    public AccountBalance(String accountNumber, Double balance, Long movementCount,
+                          Date lastMovementDate, Date modificationDate, Long version) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.movementCount = movementCount;
+        this.lastMovementDate = lastMovementDate;
+        this.modificationDate = modificationDate;
+        this.version = version;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.nttdata.bootcamp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+// Progress of a backfill file: chunks already inserted are skipped on resume
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Document(collection = "backfill_checkpoint")
+public class BackfillCheckpoint {
+
+    @Id
+    private String id;
+
+    private String path;
+    private Long chunkSize;
+    private List<Integer> completedChunks;
+    private Long inserted;
+
+    private Date modificationDate;
+
+}
@@ -0,0 +1,36 @@
+package com.nttdata.bootcamp.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Periodic copy of an AccountBalance, starting point for replays
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Document(collection = "balance_snapshot")
+public class BalanceSnapshot {
+
+    @Id
+    private String id;
+
+    private String accountNumber;
+    private Double balance;
+    private Long movementCount;
+
+    // covers the movements created up to asOf
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date asOf;
+
+    // when the snapshot was taken, for retention
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date takenAt;
+
+}
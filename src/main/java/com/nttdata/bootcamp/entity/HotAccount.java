@@ -0,0 +1,27 @@
+package com.nttdata.bootcamp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Estimated access frequency of an account, written by each instance's sketch; read to pre-warm
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Document(collection = "hot_account")
+public class HotAccount {
+
+    @Id
+    private String accountNumber;
+
+    private Long score;
+
+    private Date modificationDate;
+
+}
@@ -0,0 +1,29 @@
+package com.nttdata.bootcamp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Progress of a storage migration: the copy resumes from lastCreationDate
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Document(collection = "migration_checkpoint")
+public class MigrationCheckpoint {
+
+    @Id
+    private String id;
+
+    private Date lastCreationDate;
+    private Long copied;
+    private Boolean completed;
+
+    private Date modificationDate;
+
+}
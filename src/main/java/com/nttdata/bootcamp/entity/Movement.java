@@ -16,7 +16,8 @@ import java.util.Date;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
-@Document(collection = "movement")
+// collection depends on movement.storage.mode (see MovementStorage)
+@Document(collection = "#{@movementStorage.collectionName()}")
 public class Movement {
 
     @Id
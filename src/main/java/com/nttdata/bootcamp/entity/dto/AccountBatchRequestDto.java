@@ -0,0 +1,33 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class AccountBatchRequestDto {
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<String> accountNumbers;
+
+    // optional [from, to)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date to;
+
+    // most recent movements per account
+    @NotNull
+    @Min(1)
+    @Max(500)
+    private Integer limitPerAccount = 50;
+}
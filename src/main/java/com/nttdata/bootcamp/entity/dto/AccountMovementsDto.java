@@ -0,0 +1,17 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.nttdata.bootcamp.entity.Movement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountMovementsDto {
+
+    private String accountNumber;
+    private List<Movement> movements;
+}
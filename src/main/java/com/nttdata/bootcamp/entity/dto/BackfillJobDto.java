@@ -0,0 +1,25 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class BackfillJobDto {
+
+    // checkpoint id: same file, same job
+    private String id;
+    private JobStatus status;
+    private String error;
+    private String path;
+
+    private Integer chunks;
+    private Long chunksDone;
+    private Long inserted;
+    private Long duplicates;
+    private Long rejected;
+
+    private Date creationDate;
+    private Date finishDate;
+}
@@ -0,0 +1,21 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+public class BackfillRequestDto {
+
+    // file under movement.backfill.import-dir (CSV with the extract header, or NDJSON)
+    @NotBlank
+    private String path;
+
+    // csv | ndjson, from the extension when empty
+    private String format;
+
+    private Integer parallelism;
+    private Integer batchSize;
+    private Boolean publishToKafka = false;
+    private Boolean recomputeBalances = true;
+}
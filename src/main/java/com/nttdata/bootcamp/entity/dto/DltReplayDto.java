@@ -0,0 +1,14 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DltReplayDto {
+
+        private String topic;
+        private Long replayed;
+}
@@ -0,0 +1,15 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExtractFileDto {
+
+        private String name;
+        private Long rows;
+        private Long bytes;
+}
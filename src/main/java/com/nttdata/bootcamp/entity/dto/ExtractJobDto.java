@@ -0,0 +1,29 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class ExtractJobDto {
+
+    private String id;
+    private JobStatus status;
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date to;
+
+    private List<String> accountNumbers;
+    private List<ExtractFileDto> files = new ArrayList<>();
+
+    private Date creationDate;
+    private Date finishDate;
+}
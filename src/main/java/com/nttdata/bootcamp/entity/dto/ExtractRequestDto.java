@@ -0,0 +1,24 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class ExtractRequestDto {
+
+    // [from, to)
+    @NotNull
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date from;
+
+    @NotNull
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date to;
+
+    // optional, all accounts when empty
+    private List<String> accountNumbers;
+}
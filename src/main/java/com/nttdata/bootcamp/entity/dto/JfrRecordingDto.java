@@ -0,0 +1,19 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class JfrRecordingDto {
+
+    private long id;
+    private String name;
+    private String state;
+    private Date startTime;
+    private Date stopTime;
+
+    // bytes written to the repository so far; download = /actuator/jfr/{id}
+    private long size;
+    private boolean startedHere;
+}
@@ -0,0 +1,50 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ReconciliationReportDto {
+
+    private String id;
+    private JobStatus status;
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private Date day;
+
+    // occurrences compared on each side
+    private long sourceEvents;
+    private long movements;
+    private long publishedEvents;
+    // Kafka records that could not be parsed
+    private long unreadable;
+
+    // source event with exactly one movement
+    private long matched;
+    // source event without movement
+    private long missing;
+    // more movements than source events
+    private long duplicates;
+    // movement without source event
+    private long orphans;
+    // same count, different amount (movement vs source or published event)
+    private long amountMismatches;
+    // movement without MovementCreated event
+    private long unpublished;
+    // more MovementCreated events than movements
+    private long extraPublished;
+
+    // a few identities (type|number) per discrepancy
+    private Map<String, List<String>> samples = new LinkedHashMap<>();
+
+    private Long durationMs;
+    private Date creationDate;
+    private Date finishDate;
+}
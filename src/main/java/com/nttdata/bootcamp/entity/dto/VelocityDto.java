@@ -0,0 +1,23 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class VelocityDto {
+
+    private String accountNumber;
+
+    // movements and volume (sum of absolute amounts) in each sliding window
+    private long lastMinuteCount;
+    private Double lastMinuteVolume;
+    private long lastHourCount;
+    private Double lastHourVolume;
+    private long lastDayCount;
+    private Double lastDayVolume;
+
+    // first movement seen by this instance, null when the account is not tracked
+    private Date trackedSince;
+    private Date asOf;
+}
@@ -0,0 +1,5 @@
+package com.nttdata.bootcamp.entity.enums;
+
+public enum JobStatus {
+    RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,271 @@
+package com.nttdata.bootcamp.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejects requests fast instead of queueing them, per endpoint group:
+ * <ul>
+ *     <li>per-client rate limit (remote address) -> 429</li>
+ *     <li>bulkhead (fixed max concurrent calls) -> 503</li>
+ *     <li>adaptive latency-based concurrency limit on reads and reports -> 503</li>
+ * </ul>
+ * Writes only get a generous bulkhead, so under spikes report scans are shed before them.
+ * <p>
+ * The client is the remote address. Header {@value #CLIENT_HEADER} names the client only
+ * when the request comes straight from a trusted gateway
+ * ({@code movement.shedding.trusted-proxies}) that sets it from the caller it authenticated;
+ * from anyone else it is ignored, so a caller cannot get a fresh bucket per request.
+ * <p>
+ * The adaptive limit sees the time to first byte (when the response is committed), so a
+ * long streamed listing is not mistaken for a slow server, and only backs off on answers
+ * that point at overload: 5xx and unhandled errors (timeouts included), never 4xx.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoadSheddingFilter implements WebFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    enum EndpointGroup {
+        MOVEMENT_WRITE("write", 200, 100, false),
+        MOVEMENT_READ("read", 100, 50, true),
+        REPORT("report", 20, 10, true);
+
+        private final String key;
+        private final int defaultMaxConcurrent;
+        private final int defaultClientRate;
+        private final boolean defaultAdaptive;
+
+        EndpointGroup(String key, int defaultMaxConcurrent, int defaultClientRate, boolean defaultAdaptive) {
+            this.key = key;
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+            this.defaultClientRate = defaultClientRate;
+            this.defaultAdaptive = defaultAdaptive;
+        }
+
+        static EndpointGroup of(ServerHttpRequest request) {
+            String path = request.getPath().pathWithinApplication().value();
+            if (path.startsWith("/report/velocity")) {
+                // in-memory lookup, not a scan
+                return MOVEMENT_READ;
+            }
+            if (path.startsWith("/report")) {
+                return REPORT;
+            }
+            if (path.startsWith("/movement/batch")) {
+                // POST, but a read
+                return MOVEMENT_READ;
+            }
+            if (path.startsWith("/movement")) {
+                return HttpMethod.GET.equals(request.getMethod()) ? MOVEMENT_READ : MOVEMENT_WRITE;
+            }
+            return null;
+        }
+    }
+
+    private final boolean enabled;
+    private final Set<String> trustedProxies;
+    private final MeterRegistry meterRegistry;
+    private final Map<EndpointGroup, GroupGuard> guards = new EnumMap<>(EndpointGroup.class);
+
+    public LoadSheddingFilter(Environment env, MeterRegistry meterRegistry) {
+        this.enabled = env.getProperty("movement.shedding.enabled", Boolean.class, true);
+        this.trustedProxies = new HashSet<>(Arrays.asList(
+                env.getProperty("movement.shedding.trusted-proxies", String[].class, new String[0])));
+        this.meterRegistry = meterRegistry;
+
+        int maxClients = env.getProperty("movement.shedding.max-tracked-clients", Integer.class, 10_000);
+        long targetLatencyMs = env.getProperty("movement.shedding.adaptive.target-latency-ms", Long.class, 250L);
+        int minLimit = env.getProperty("movement.shedding.adaptive.min-limit", Integer.class, 4);
+
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String prefix = "movement.shedding." + group.key + ".";
+            int maxConcurrent = env.getProperty(prefix + "max-concurrent", Integer.class, group.defaultMaxConcurrent);
+            int clientRate = env.getProperty(prefix + "client-rate-per-second", Integer.class, group.defaultClientRate);
+            boolean adaptive = env.getProperty(prefix + "adaptive", Boolean.class, group.defaultAdaptive);
+
+            AdaptiveConcurrencyLimiter limiter = adaptive
+                    ? new AdaptiveConcurrencyLimiter(maxConcurrent / 2, minLimit, maxConcurrent, targetLatencyMs, 0.9)
+                    : null;
+            guards.put(group, new GroupGuard(group, maxConcurrent, clientRate, maxClients, limiter));
+
+            if (limiter != null) {
+                Gauge.builder("movement.http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                        .tag("group", group.key)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        EndpointGroup group = enabled ? EndpointGroup.of(exchange.getRequest()) : null;
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+        GroupGuard guard = guards.get(group);
+
+        if (!guard.clientLimiter(clientId(exchange.getRequest())).acquirePermission()) {
+            return reject(exchange, guard, "rate_limit", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        if (!guard.bulkhead.tryAcquirePermission()) {
+            return reject(exchange, guard, "bulkhead", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (guard.limiter != null && !guard.limiter.tryAcquire()) {
+            guard.bulkhead.onComplete();
+            return reject(exchange, guard, "concurrency_limit", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        CallTiming timing = new CallTiming(System.nanoTime());
+        exchange.getResponse().beforeCommit(() -> {
+            timing.committed(System.nanoTime());
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doOnError(timing::failed)
+                .doFinally(signal -> {
+                    guard.bulkhead.onComplete();
+                    if (guard.limiter != null) {
+                        guard.limiter.release(timing.latencyNanos(System.nanoTime()),
+                                isOverload(timing.error, exchange.getResponse().getStatusCode()));
+                    }
+                });
+    }
+
+    /**
+     * Whether a finished call should make the adaptive limit back off: server errors
+     * and errors no handler turned into a status (answered as 500), but not client
+     * errors such as a 400 on a bad date or a 404.
+     */
+    static boolean isOverload(Throwable error, HttpStatus status) {
+        if (error != null) {
+            return !(error instanceof ResponseStatusException)
+                    || ((ResponseStatusException) error).getStatus().is5xxServerError();
+        }
+        return status != null && status.is5xxServerError();
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private Mono<Void> reject(ServerWebExchange exchange, GroupGuard guard, String reason, HttpStatus status) {
+        guard.rejected(reason).increment();
+        log.debug("Shedding {} {} ({})", exchange.getRequest().getMethod(),
+                exchange.getRequest().getPath(), reason);
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().set("Retry-After", "1");
+        return exchange.getResponse().setComplete();
+    }
+
+    private String clientId(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String address = remote != null ? remote.getHostString() : "unknown";
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeaders().getFirst(CLIENT_HEADER);
+        return client != null && !client.isEmpty() ? client : address;
+    }
+
+    private static final class CallTiming {
+
+        private final long startNanos;
+        private volatile long committedNanos;
+        private volatile Throwable error;
+
+        private CallTiming(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private void committed(long nowNanos) {
+            if (committedNanos == 0) {
+                committedNanos = nowNanos;
+            }
+        }
+
+        private void failed(Throwable e) {
+            error = e;
+        }
+
+        // time to first byte; the whole call if nothing was written
+        private long latencyNanos(long nowNanos) {
+            long end = committedNanos != 0 ? committedNanos : nowNanos;
+            return end - startNanos;
+        }
+    }
+
+    private final class GroupGuard {
+
+        private final EndpointGroup group;
+        private final Bulkhead bulkhead;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final RateLimiterConfig clientRateConfig;
+        private final Map<String, RateLimiter> clientLimiters;
+        private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+        private GroupGuard(EndpointGroup group, int maxConcurrent, int clientRate, int maxClients,
+                           AdaptiveConcurrencyLimiter limiter) {
+            this.group = group;
+            this.limiter = limiter;
+            this.bulkhead = Bulkhead.of("movement-" + group.key, BulkheadConfig.custom()
+                    .maxConcurrentCalls(maxConcurrent)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build());
+            this.clientRateConfig = RateLimiterConfig.custom()
+                    .limitForPeriod(clientRate)
+                    .limitRefreshPeriod(Duration.ofSeconds(1))
+                    .timeoutDuration(Duration.ZERO)
+                    .build();
+            // LRU bounded: idle clients are dropped once maxClients is reached
+            this.clientLimiters = Collections.synchronizedMap(new LinkedHashMap<String, RateLimiter>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RateLimiter> eldest) {
+                    return size() > maxClients;
+                }
+            });
+        }
+
+        private RateLimiter clientLimiter(String clientId) {
+            return clientLimiters.computeIfAbsent(clientId,
+                    id -> RateLimiter.of(group.key + ":" + id, clientRateConfig));
+        }
+
+        private Counter rejected(String reason) {
+            return rejections.computeIfAbsent(reason, r -> Counter.builder("movement.http.rejected")
+                    .tag("group", group.key)
+                    .tag("reason", r)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.nttdata.bootcamp.jfr;
+
+import com.nttdata.bootcamp.entity.dto.JfrRecordingDto;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * On-demand Flight Recorder recordings ({@code /actuator/jfr}):
+ * <ul>
+ *     <li>GET {@code /jfr}: recordings of this JVM (also those started with -XX:StartFlightRecording)</li>
+ *     <li>POST {@code /jfr} {@code {"name", "settings", "durationSeconds"}}: start one</li>
+ *     <li>POST {@code /jfr/{id}}: stop it, the data is kept until deleted</li>
+ *     <li>GET {@code /jfr/{id}}: download a .jfr (a snapshot if it is still running)</li>
+ *     <li>DELETE {@code /jfr/{id}}: discard it</li>
+ * </ul>
+ * Recordings are bounded in size, age and duration, and only a few may run at once.
+ * They leave out the events that carry the environment, the system properties and
+ * the command line (credentials are often passed there). The actuator listens on the
+ * management port, bound to an internal address (see application.properties).
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final int CONFLICT = 409;
+
+    // environment variables, -D properties and JVM/application arguments
+    static final List<String> SENSITIVE_EVENTS = Arrays.asList(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation");
+
+    // recordings started through this endpoint
+    private final Set<Long> started = ConcurrentHashMap.newKeySet();
+
+    @Value("${movement.jfr.settings:profile}")
+    private String defaultSettings;
+
+    @Value("${movement.jfr.max-recordings:2}")
+    private int maxRecordings;
+
+    @Value("${movement.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${movement.jfr.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${movement.jfr.max-duration-minutes:60}")
+    private long maxDurationMinutes;
+
+    // ============================
+    // LIST
+    // ============================
+    @ReadOperation
+    public List<JfrRecordingDto> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // ============================
+    // START
+    // ============================
+    @WriteOperation
+    public WebEndpointResponse<JfrRecordingDto> start(@Nullable String name, @Nullable String settings,
+                                                      @Nullable Long durationSeconds) {
+        long running = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> started.contains(r.getId()) && r.getState() == RecordingState.RUNNING)
+                .count();
+        if (running >= maxRecordings) {
+            return new WebEndpointResponse<>(CONFLICT);
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : defaultSettings);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        long maxSeconds = Duration.ofMinutes(maxDurationMinutes).getSeconds();
+        long seconds = durationSeconds != null && durationSeconds > 0
+                ? Math.min(durationSeconds, maxSeconds)
+                : maxSeconds;
+
+        Recording recording = new Recording(configuration);
+        recording.setName(name != null ? name : "movement-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        recording.setDuration(Duration.ofSeconds(seconds));
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+        started.add(recording.getId());
+
+        log.info("✔ JFR recording {} ({}) started for {}s", recording.getId(), recording.getName(), seconds);
+        return new WebEndpointResponse<>(toDto(recording));
+    }
+
+    // ============================
+    // STOP
+    // ============================
+    @WriteOperation
+    public WebEndpointResponse<JfrRecordingDto> stop(@Selector long id) {
+        Recording recording = find(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("✔ JFR recording {} stopped", id);
+        }
+        return new WebEndpointResponse<>(toDto(recording));
+    }
+
+    // ============================
+    // DOWNLOAD
+    // ============================
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        Recording recording = find(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("movement-" + id + "-", ".jfr");
+        if (recording.getState() == RecordingState.RUNNING) {
+            // snapshot of what has been recorded so far; the recording keeps running
+            try (Recording copy = recording.copy(false)) {
+                copy.dump(file);
+            }
+        } else {
+            recording.dump(file);
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    // ============================
+    // DISCARD
+    // ============================
+    @DeleteOperation
+    public WebEndpointResponse<Void> discard(@Selector long id) {
+        Recording recording = find(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        recording.close();
+        started.remove(id);
+        log.info("✔ JFR recording {} discarded", id);
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private Recording find(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> r.getId() == id && r.getState() != RecordingState.CLOSED)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private JfrRecordingDto toDto(Recording recording) {
+        JfrRecordingDto dto = new JfrRecordingDto();
+        dto.setId(recording.getId());
+        dto.setName(recording.getName());
+        dto.setState(recording.getState().name());
+        dto.setStartTime(recording.getStartTime() != null ? Date.from(recording.getStartTime()) : null);
+        dto.setStopTime(recording.getStopTime() != null ? Date.from(recording.getStopTime()) : null);
+        dto.setSize(recording.getSize());
+        dto.setStartedHere(started.contains(recording.getId()));
+        return dto;
+    }
+
+    /**
+     * Dumped recording, streamed once and deleted when the stream is closed. Not
+     * exposed as a file, so the writer reads it through the stream instead of zero-copy.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return Channels.newChannel(getInputStream());
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Path file = getFile().toPath();
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+    }
+}
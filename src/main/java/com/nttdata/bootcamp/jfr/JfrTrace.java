@@ -0,0 +1,54 @@
+package com.nttdata.bootcamp.jfr;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.Supplier;
+
+/**
+ * Wraps a reactive call in a JFR event: begun on subscribe, committed on complete,
+ * error or cancel with the outcome and the number of items emitted. When no
+ * recording has the event enabled the source is returned untouched, so the idle
+ * cost is one allocation and a flag check per subscription.
+ */
+public final class JfrTrace {
+
+    private JfrTrace() {
+    }
+
+    public static <T> Mono<T> mono(Supplier<? extends MovementJfrEvent> event, Mono<T> source) {
+        return Mono.defer(() -> {
+            MovementJfrEvent e = event.get();
+            if (!e.isEnabled()) {
+                return source;
+            }
+            e.begin();
+            return source
+                    .doOnNext(item -> e.items++)
+                    .doFinally(signal -> commit(e, signal));
+        });
+    }
+
+    public static <T> Flux<T> flux(Supplier<? extends MovementJfrEvent> event, Flux<T> source) {
+        return Flux.defer(() -> {
+            MovementJfrEvent e = event.get();
+            if (!e.isEnabled()) {
+                return source;
+            }
+            e.begin();
+            return source
+                    .doOnNext(item -> e.items++)
+                    .doFinally(signal -> commit(e, signal));
+        });
+    }
+
+    private static void commit(MovementJfrEvent e, SignalType signal) {
+        e.end();
+        if (e.shouldCommit()) {
+            e.outcome = signal == SignalType.ON_COMPLETE ? "success"
+                    : signal == SignalType.ON_ERROR ? "error" : "cancel";
+            e.commit();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.nttdata.bootcamp.KafkaHandler")
+@Label("Kafka Handler")
+@Description("One source event handled by a listener, from deserialized record to published movement")
+public class KafkaHandlerEvent extends MovementJfrEvent {
+
+    @Label("Listener")
+    String listener;
+
+    public KafkaHandlerEvent(String listener, String accountNumber, String typeTransaction) {
+        super(accountNumber, typeTransaction);
+        this.listener = listener;
+    }
+}
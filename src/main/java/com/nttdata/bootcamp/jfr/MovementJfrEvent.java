@@ -0,0 +1,32 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Common fields of the movement lifecycle events. Duration and thread come from JFR;
+ * the event is begun on subscribe and committed on termination (see {@link JfrTrace}),
+ * so it covers the whole reactive call, whichever threads it hops across.
+ */
+@Category({"Bank", "Movement"})
+@StackTrace(false)
+public abstract class MovementJfrEvent extends jdk.jfr.Event {
+
+    @Label("Account")
+    String accountNumber;
+
+    @Label("Type")
+    String typeTransaction;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Items")
+    long items;
+
+    protected MovementJfrEvent(String accountNumber, String typeTransaction) {
+        this.accountNumber = accountNumber;
+        this.typeTransaction = typeTransaction;
+    }
+}
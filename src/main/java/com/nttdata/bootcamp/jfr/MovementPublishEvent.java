@@ -0,0 +1,23 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.nttdata.bootcamp.MovementPublish")
+@Label("Movement Publish")
+@Description("publishReactive: send of the movement-created event until the broker acknowledges it")
+public class MovementPublishEvent extends MovementJfrEvent {
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Movement Number")
+    String movementNumber;
+
+    public MovementPublishEvent(String topic, String accountNumber, String typeTransaction, String movementNumber) {
+        super(accountNumber, typeTransaction);
+        this.topic = topic;
+        this.movementNumber = movementNumber;
+    }
+}
@@ -0,0 +1,19 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.nttdata.bootcamp.MovementSave")
+@Label("Movement Save")
+@Description("saveMovementReactive: insert, velocity, balance projection and publish")
+public class MovementSaveEvent extends MovementJfrEvent {
+
+    @Label("Movement Number")
+    String movementNumber;
+
+    public MovementSaveEvent(String accountNumber, String typeTransaction, String movementNumber) {
+        super(accountNumber, typeTransaction);
+        this.movementNumber = movementNumber;
+    }
+}
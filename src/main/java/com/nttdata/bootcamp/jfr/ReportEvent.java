@@ -0,0 +1,19 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.nttdata.bootcamp.Report")
+@Label("Report")
+@Description("Report generation, from request to last row written")
+public class ReportEvent extends MovementJfrEvent {
+
+    @Label("Report")
+    String report;
+
+    public ReportEvent(String report, String accountNumber) {
+        super(accountNumber, null);
+        this.report = report;
+    }
+}
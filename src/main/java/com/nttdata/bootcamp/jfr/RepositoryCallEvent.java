@@ -0,0 +1,19 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.nttdata.bootcamp.RepositoryCall")
+@Label("Repository Call")
+@Description("One Mongo operation on the movements collection, until its last document")
+public class RepositoryCallEvent extends MovementJfrEvent {
+
+    @Label("Operation")
+    String operation;
+
+    public RepositoryCallEvent(String operation, String accountNumber, String typeTransaction) {
+        super(accountNumber, typeTransaction);
+        this.operation = operation;
+    }
+}
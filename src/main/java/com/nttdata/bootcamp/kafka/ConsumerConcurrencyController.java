@@ -0,0 +1,204 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.util.Constant;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adjusts in-process consumer concurrency and {@code max.poll.records} of the movement
+ * listeners from lag, processing rate and Mongo save latency, and exports
+ * {@code movement.kafka.autoscale.desired-replicas} for a horizontal autoscaler.
+ * <p>
+ * Changes are applied by restarting the listener container, at most once per cooldown.
+ * Each listener has its own consumer group, so a restart only rebalances that listener.
+ */
+@Slf4j
+@Component
+public class ConsumerConcurrencyController {
+
+    private static final List<String> LISTENERS = Arrays.asList(
+            Constant.LISTENER_DEPOSIT,
+            Constant.LISTENER_WITHDRAWAL,
+            Constant.LISTENER_PAYMENT,
+            Constant.LISTENER_CHARGE,
+            Constant.LISTENER_VIRTUAL_COIN);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ConsumerLagMonitor lagMonitor;
+    private final ProcessedRecordsInterceptor processedRecords;
+    private final Timer mongoSaveTimer;
+
+    @Value("${movement.kafka.concurrency.min:1}")
+    private int minConcurrency;
+
+    @Value("${movement.kafka.concurrency.max:8}")
+    private int maxConcurrency;
+
+    @Value("${movement.kafka.batch.min:50}")
+    private int minBatch;
+
+    @Value("${movement.kafka.batch.max:500}")
+    private int maxBatch;
+
+    @Value("${movement.kafka.target-drain-seconds:60}")
+    private long targetDrainSeconds;
+
+    @Value("${movement.kafka.mongo-latency-threshold-ms:200}")
+    private long mongoLatencyThresholdMs;
+
+    @Value("${movement.kafka.concurrency.cooldown-ms:60000}")
+    private long cooldownMs;
+
+    private final Map<String, Double> lastProcessed = new HashMap<>();
+    private final Map<String, Long> lastChange = new HashMap<>();
+    private final AtomicInteger desiredReplicas = new AtomicInteger(1);
+    private long lastTick = System.nanoTime();
+    private long lastMongoCount;
+    private double lastMongoTotalMs;
+    // set on shutdown: no more restarts once the containers are being drained
+    private volatile boolean suspended;
+
+    public ConsumerConcurrencyController(KafkaListenerEndpointRegistry registry,
+                                         ConsumerLagMonitor lagMonitor,
+                                         ProcessedRecordsInterceptor processedRecords,
+                                         MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.lagMonitor = lagMonitor;
+        this.processedRecords = processedRecords;
+        this.mongoSaveTimer = Timer.builder(Constant.METRIC_MONGO_SAVE).register(meterRegistry);
+        Gauge.builder("movement.kafka.autoscale.desired-replicas", desiredReplicas, AtomicInteger::get)
+                .description("Replicas needed to drain current lag within the target drain time")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${movement.kafka.concurrency.interval-ms:30000}",
+            initialDelayString = "${movement.kafka.concurrency.interval-ms:30000}")
+    public synchronized void adjust() {
+        if (suspended) {
+            return;
+        }
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max(1e-3, (now - lastTick) / 1e9);
+        lastTick = now;
+        boolean mongoSlow = mongoLatencyMs() > mongoLatencyThresholdMs;
+
+        int totalDesired = 0;
+        for (String id : LISTENERS) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (!(container instanceof ConcurrentMessageListenerContainer) || !container.isRunning()) {
+                continue;
+            }
+            ConcurrentMessageListenerContainer<?, ?> concurrent = (ConcurrentMessageListenerContainer<?, ?>) container;
+            String[] topics = concurrent.getContainerProperties().getTopics();
+            if (topics == null || topics.length == 0) {
+                continue;
+            }
+            String topic = topics[0];
+            long lag = lagMonitor.lag(topic);
+            if (lag < 0) {
+                continue;
+            }
+
+            double processed = processedRecords.processed(topic);
+            Double previous = lastProcessed.put(topic, processed);
+            if (previous == null) {
+                // first sample: no rate yet
+                continue;
+            }
+            double rate = (processed - previous) / elapsedSeconds;
+
+            int current = concurrent.getConcurrency();
+            int desired = desiredConcurrency(lag, rate, current, mongoSlow);
+            int partitions = lagMonitor.partitions(topic);
+            if (partitions > 0) {
+                desired = Math.min(desired, partitions);
+            }
+            totalDesired += desiredConsumers(lag, rate, current);
+
+            int batch = mongoSlow ? minBatch : lag > (long) maxBatch * current ? maxBatch : minBatch;
+            apply(id, concurrent, desired, batch);
+        }
+        desiredReplicas.set(Math.max(1, (int) Math.ceil((double) totalDesired / maxConcurrency)));
+    }
+
+    /**
+     * Stops adjusting (and restarting) the containers; waits for a running adjustment.
+     */
+    public synchronized void suspend() {
+        suspended = true;
+    }
+
+    // ============================
+    // DECISION
+    // ============================
+    private int desiredConcurrency(long lag, double rate, int current, boolean mongoSlow) {
+        if (mongoSlow) {
+            // more consumers would only queue on Mongo: back off
+            return Math.max(minConcurrency, current - 1);
+        }
+        return Math.max(minConcurrency, Math.min(maxConcurrency, desiredConsumers(lag, rate, current)));
+    }
+
+    private int desiredConsumers(long lag, double rate, int current) {
+        if (lag == 0) {
+            return minConcurrency;
+        }
+        if (rate <= 0) {
+            // lag but nothing processed in the window: probe one more consumer
+            return current + 1;
+        }
+        double perConsumer = rate / Math.max(1, current);
+        return (int) Math.ceil(lag / (perConsumer * targetDrainSeconds));
+    }
+
+    private void apply(String id, ConcurrentMessageListenerContainer<?, ?> container, int concurrency, int batch) {
+        String currentBatch = container.getContainerProperties().getKafkaConsumerProperties()
+                .getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+        boolean batchChanged = !String.valueOf(batch).equals(currentBatch);
+        if (concurrency == container.getConcurrency() && !batchChanged) {
+            return;
+        }
+        long nowMs = System.currentTimeMillis();
+        if (nowMs - lastChange.getOrDefault(id, 0L) < cooldownMs) {
+            return;
+        }
+        lastChange.put(id, nowMs);
+
+        log.info("Listener {}: concurrency {} -> {}, max.poll.records {} -> {}",
+                id, container.getConcurrency(), concurrency, currentBatch, batch);
+        container.stop(() -> {
+            container.setConcurrency(concurrency);
+            container.getContainerProperties().getKafkaConsumerProperties()
+                    .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batch));
+            if (!suspended) {
+                container.start();
+            }
+        });
+    }
+
+    private double mongoLatencyMs() {
+        long count = mongoSaveTimer.count();
+        double totalMs = mongoSaveTimer.totalTime(TimeUnit.MILLISECONDS);
+        long deltaCount = count - lastMongoCount;
+        double deltaMs = totalMs - lastMongoTotalMs;
+        lastMongoCount = count;
+        lastMongoTotalMs = totalMs;
+        return deltaCount > 0 ? deltaMs / deltaCount : 0;
+    }
+}
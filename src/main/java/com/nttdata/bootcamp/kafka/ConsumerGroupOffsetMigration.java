@@ -0,0 +1,125 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.config.StartupTimingListener;
+import com.nttdata.bootcamp.util.Constant;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One-time copy of the committed offsets of the former shared consumer group
+ * ({@code movement.kafka.offsets.copy-from}) into the per-listener groups, run before
+ * the listener containers start. A listener whose group has no committed offsets yet
+ * resumes where the shared group stopped, on the partitions of its own topics; a group
+ * that already has offsets is left alone, so later starts do nothing.
+ * <p>
+ * A failure only logs: the listener then starts from {@code auto-offset-reset}
+ * (earliest), and the deterministic movement _id turns the events read again into
+ * no-ops.
+ */
+@Slf4j
+@Component
+public class ConsumerGroupOffsetMigration implements SmartLifecycle {
+
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    private static final List<String> LISTENERS = Arrays.asList(
+            Constant.LISTENER_DEPOSIT,
+            Constant.LISTENER_WITHDRAWAL,
+            Constant.LISTENER_PAYMENT,
+            Constant.LISTENER_CHARGE,
+            Constant.LISTENER_VIRTUAL_COIN);
+
+    private final KafkaAdmin kafkaAdmin;
+    private final KafkaListenerEndpointRegistry registry;
+
+    @Value("${movement.kafka.offsets.copy-from:}")
+    private String legacyGroup;
+
+    private volatile boolean running;
+
+    public ConsumerGroupOffsetMigration(KafkaAdmin kafkaAdmin, KafkaListenerEndpointRegistry registry) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.registry = registry;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (legacyGroup == null || legacyGroup.isEmpty()
+                || Boolean.getBoolean(StartupTimingListener.CDS_TRAINING_PROPERTY)) {
+            return;
+        }
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            copyOffsets(admin);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not copy the offsets of consumer group {}: {}", legacyGroup, e.toString());
+        }
+    }
+
+    void copyOffsets(Admin admin) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> legacy = committed(admin, legacyGroup);
+        if (legacy.isEmpty()) {
+            return;
+        }
+        for (String listener : LISTENERS) {
+            MessageListenerContainer container = registry.getListenerContainer(listener);
+            if (container == null || container.getGroupId() == null
+                    || !committed(admin, container.getGroupId()).isEmpty()) {
+                continue;
+            }
+            Set<String> topics = new HashSet<>(Arrays.asList(container.getContainerProperties().getTopics()));
+            Map<TopicPartition, OffsetAndMetadata> offsets = legacy.entrySet().stream()
+                    .filter(e -> topics.contains(e.getKey().topic()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            if (offsets.isEmpty()) {
+                continue;
+            }
+            admin.alterConsumerGroupOffsets(container.getGroupId(), offsets)
+                    .all()
+                    .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            log.info("✔ Offsets de {} copiados a {}: {}", legacyGroup, container.getGroupId(), offsets.keySet());
+        }
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> committed(Admin admin, String group) throws Exception {
+        return admin.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // just before the listener containers (registry phase)
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+}
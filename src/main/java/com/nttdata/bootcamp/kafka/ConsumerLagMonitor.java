@@ -0,0 +1,155 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.util.Constant;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls committed vs. log-end offsets of the listeners' consumer groups (one per
+ * listener) and exports {@code movement.kafka.consumer.lag{topic,partition}} plus
+ * the per-topic total.
+ */
+@Slf4j
+@Component
+public class ConsumerLagMonitor {
+
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    private static final List<String> GROUPS = Arrays.asList(
+            Constant.KAFKA_GROUP_DEPOSIT,
+            Constant.KAFKA_GROUP_WITHDRAWAL,
+            Constant.KAFKA_GROUP_PAYMENT,
+            Constant.KAFKA_GROUP_CHARGE,
+            Constant.KAFKA_GROUP_VIRTUAL_COIN);
+
+    private final KafkaAdmin kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<TopicPartition, AtomicLong> partitionLag = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> topicLag = new ConcurrentHashMap<>();
+    private final Map<String, Integer> topicPartitions = new ConcurrentHashMap<>();
+
+    private volatile AdminClient adminClient;
+
+    public ConsumerLagMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${movement.kafka.lag.poll-interval-ms:15000}")
+    public void refresh() {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+            for (String group : GROUPS) {
+                committed.putAll(admin()
+                        .listConsumerGroupOffsets(group)
+                        .partitionsToOffsetAndMetadata()
+                        .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            if (committed.isEmpty()) {
+                return;
+            }
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            committed.keySet().forEach(tp -> latest.put(tp, OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin()
+                    .listOffsets(latest)
+                    .all()
+                    .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Map<String, Long> totals = new HashMap<>();
+            Map<String, Integer> partitions = new HashMap<>();
+            committed.forEach((tp, offset) -> {
+                ListOffsetsResult.ListOffsetsResultInfo end = ends.get(tp);
+                if (end == null || offset == null) {
+                    return;
+                }
+                long lag = Math.max(0, end.offset() - offset.offset());
+                partitionGauge(tp).set(lag);
+                totals.merge(tp.topic(), lag, Long::sum);
+                partitions.merge(tp.topic(), 1, Integer::sum);
+            });
+            totals.forEach((topic, lag) -> topicGauge(topic).set(lag));
+            topicPartitions.putAll(partitions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not refresh consumer lag: {}", e.toString());
+        }
+    }
+
+    /** Last observed total lag of a topic, -1 when unknown. */
+    public long lag(String topic) {
+        AtomicLong lag = topicLag.get(topic);
+        return lag != null ? lag.get() : -1;
+    }
+
+    public long totalLag() {
+        return topicLag.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /** Partitions with committed offsets, upper bound for useful consumer concurrency. */
+    public int partitions(String topic) {
+        return topicPartitions.getOrDefault(topic, 0);
+    }
+
+    // ============================
+    // GAUGES
+    // ============================
+    private AtomicLong partitionGauge(TopicPartition tp) {
+        return partitionLag.computeIfAbsent(tp, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("movement.kafka.consumer.lag", value, AtomicLong::get)
+                    .tag("topic", key.topic())
+                    .tag("partition", String.valueOf(key.partition()))
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private AtomicLong topicGauge(String topic) {
+        return topicLag.computeIfAbsent(topic, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("movement.kafka.consumer.lag.total", value, AtomicLong::get)
+                    .tag("topic", key)
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private AdminClient admin() {
+        if (adminClient == null) {
+            synchronized (this) {
+                if (adminClient == null) {
+                    adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+                }
+            }
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+}
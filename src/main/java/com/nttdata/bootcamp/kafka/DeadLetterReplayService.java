@@ -0,0 +1,154 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.config.SchedulerConfig;
+import com.nttdata.bootcamp.util.Constant;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk replay of a DLT back into its source topic. Records are copied as raw bytes
+ * (retry/DLT headers dropped) up to the end offsets seen when the replay starts;
+ * progress is committed under a dedicated group, so a replay only picks up records
+ * dead-lettered since the previous one. Only topics whose {@code <topic>-dlt} is
+ * consumed by a registered listener container can be replayed.
+ */
+@Slf4j
+@Component
+public class DeadLetterReplayService {
+
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private static final String REPLAY_GROUP = Constant.KAFKA_GROUP_ID + "-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final KafkaProperties kafkaProperties;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Scheduler blockingScheduler;
+
+    public DeadLetterReplayService(KafkaProperties kafkaProperties,
+                                   KafkaListenerEndpointRegistry listenerRegistry,
+                                   @Qualifier(SchedulerConfig.BLOCKING_SCHEDULER) Scheduler blockingScheduler) {
+        this.kafkaProperties = kafkaProperties;
+        this.listenerRegistry = listenerRegistry;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /** Fails with IllegalArgumentException when {@code topic} has no known DLT. */
+    public Mono<Long> replay(String topic) {
+        if (!replayableTopics().contains(topic)) {
+            return Mono.error(new IllegalArgumentException("No dead letter topic for " + topic));
+        }
+        return Mono.fromCallable(() -> replayBlocking(topic))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /** Source topics of the DLT listeners registered by the retry topic configuration. */
+    public Set<String> replayableTopics() {
+        return listenerRegistry.getListenerContainers().stream()
+                .map(container -> container.getContainerProperties().getTopics())
+                .filter(topics -> topics != null)
+                .flatMap(Arrays::stream)
+                .filter(topic -> topic.endsWith(DLT_SUFFIX))
+                .map(topic -> topic.substring(0, topic.length() - DLT_SUFFIX.length()))
+                .collect(Collectors.toSet());
+    }
+
+    private long replayBlocking(String topic) {
+        String dlt = topic + DLT_SUFFIX;
+
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps());
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProps())) {
+
+            List<TopicPartition> partitions = consumer.partitionsFor(dlt).stream()
+                    .map(p -> new TopicPartition(dlt, p.partition()))
+                    .collect(Collectors.toList());
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+
+            long replayed = 0;
+            while (!reachedEnd(consumer, end)) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= end.get(tp)) {
+                        continue;
+                    }
+                    producer.send(new ProducerRecord<>(topic, null, record.key(), record.value(),
+                            replayHeaders(record)));
+                    replayed++;
+                }
+                producer.flush();
+                consumer.commitSync(committable(consumer, end));
+            }
+            log.info("✔ DLT {} replayed into {}: {} records", dlt, topic, replayed);
+            return replayed;
+        }
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private static boolean reachedEnd(KafkaConsumer<?, ?> consumer, Map<TopicPartition, Long> end) {
+        return end.entrySet().stream().allMatch(e -> consumer.position(e.getKey()) >= e.getValue());
+    }
+
+    // never commit past the snapshot: later records belong to the next replay
+    private static Map<TopicPartition, OffsetAndMetadata> committable(KafkaConsumer<?, ?> consumer,
+                                                                      Map<TopicPartition, Long> end) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        end.forEach((tp, last) -> offsets.put(tp,
+                new OffsetAndMetadata(Math.min(consumer.position(tp), last))));
+        return offsets;
+    }
+
+    private static RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("retry_topic-")) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, REPLAY_GROUP);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildProducerProperties());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return props;
+    }
+}
@@ -0,0 +1,49 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.util.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.ConsumerAwareRecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts records successfully handled by the listeners, per topic
+ * ({@value Constant#METRIC_KAFKA_PROCESSED}); the processing rate used by
+ * {@link ConsumerConcurrencyController} is derived from it.
+ */
+@Component
+public class ProcessedRecordsInterceptor implements ConsumerAwareRecordInterceptor<Object, Object> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ProcessedRecordsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                    Consumer<Object, Object> consumer) {
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        counter(record.topic()).increment();
+    }
+
+    public double processed(String topic) {
+        return counter(topic).count();
+    }
+
+    private Counter counter(String topic) {
+        return counters.computeIfAbsent(topic, t -> Counter.builder(Constant.METRIC_KAFKA_PROCESSED)
+                .tag("topic", t)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,133 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.config.SchedulerConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the records of a topic produced in a time range, as raw bytes. Offsets are
+ * resolved with {@code offsetsForTimes}, partitions are assigned (no group, nothing
+ * committed) and each partition is paused once it reaches its end offset.
+ */
+@Component
+public class TopicRangeReader {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final KafkaProperties kafkaProperties;
+    private final Scheduler blockingScheduler;
+
+    @Value("${movement.reconciliation.max-poll-records:5000}")
+    private int maxPollRecords;
+
+    public TopicRangeReader(KafkaProperties kafkaProperties,
+                            @Qualifier(SchedulerConfig.BLOCKING_SCHEDULER) Scheduler blockingScheduler) {
+        this.kafkaProperties = kafkaProperties;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public Flux<ConsumerRecord<byte[], byte[]>> read(String topic, Instant from, Instant to) {
+        return Flux.<List<ConsumerRecord<byte[], byte[]>>, RangeConsumer>generate(
+                        () -> new RangeConsumer(new KafkaConsumer<>(consumerProps()), topic, from, to),
+                        (range, sink) -> {
+                            if (range.done()) {
+                                sink.complete();
+                            } else {
+                                sink.next(range.poll());
+                            }
+                            return range;
+                        },
+                        RangeConsumer::close)
+                .subscribeOn(blockingScheduler)
+                .flatMapIterable(batch -> batch);
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties());
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private static final class RangeConsumer {
+
+        private final KafkaConsumer<byte[], byte[]> consumer;
+        private final Map<TopicPartition, Long> end = new HashMap<>();
+
+        private RangeConsumer(KafkaConsumer<byte[], byte[]> consumer, String topic, Instant from, Instant to) {
+            this.consumer = consumer;
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(p -> new TopicPartition(topic, p.partition()))
+                    .collect(Collectors.toList());
+            Map<TopicPartition, Long> latest = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(timestamps(partitions, from));
+            Map<TopicPartition, OffsetAndTimestamp> ends = consumer.offsetsForTimes(timestamps(partitions, to));
+
+            Map<TopicPartition, Long> start = new HashMap<>();
+            for (TopicPartition tp : partitions) {
+                long first = starts.get(tp) != null ? starts.get(tp).offset() : latest.get(tp);
+                long last = ends.get(tp) != null ? ends.get(tp).offset() : latest.get(tp);
+                if (first < last) {
+                    start.put(tp, first);
+                    end.put(tp, last);
+                }
+            }
+            consumer.assign(new ArrayList<>(start.keySet()));
+            start.forEach(consumer::seek);
+        }
+
+        private boolean done() {
+            return end.isEmpty();
+        }
+
+        private List<ConsumerRecord<byte[], byte[]>> poll() {
+            List<ConsumerRecord<byte[], byte[]>> batch = new ArrayList<>();
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                Long last = end.get(new TopicPartition(record.topic(), record.partition()));
+                if (last != null && record.offset() < last) {
+                    batch.add(record);
+                }
+            }
+            List<TopicPartition> reached = end.entrySet().stream()
+                    .filter(e -> consumer.position(e.getKey()) >= e.getValue())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!reached.isEmpty()) {
+                consumer.pause(reached);
+                reached.forEach(end::remove);
+            }
+            return batch;
+        }
+
+        private void close() {
+            consumer.close();
+        }
+
+        private static Map<TopicPartition, Long> timestamps(List<TopicPartition> partitions, Instant instant) {
+            Map<TopicPartition, Long> timestamps = new HashMap<>();
+            partitions.forEach(tp -> timestamps.put(tp, instant.toEpochMilli()));
+            return timestamps;
+        }
+    }
+}
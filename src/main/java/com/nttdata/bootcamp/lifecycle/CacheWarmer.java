@@ -0,0 +1,103 @@
+package com.nttdata.bootcamp.lifecycle;
+
+import com.nttdata.bootcamp.config.StartupTimingListener;
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.service.HotAccountService;
+import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-warms the hottest accounts (see {@link HotAccountService}) before the instance
+ * reports ready: runners complete before readiness switches to ACCEPTING_TRAFFIC.
+ * For each account the last day of movements is read with the batch query, which
+ * pulls its index and documents into Mongo's cache and rebuilds the in-memory
+ * velocity window, and the balance document is read by key. Neither read counts as
+ * traffic for the hot-account sketch, and a missing balance is left missing (no
+ * rebuild). Bounded by a timeout; a failure only logs, the instance still starts cold.
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    // same cap as POST /movement/batch
+    private static final int BATCH_SIZE = 100;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final HotAccountService hotAccountService;
+    private final MovementService movementService;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final VelocityService velocityService;
+
+    @Value("${movement.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${movement.warmup.accounts:500}")
+    private int accounts;
+
+    @Value("${movement.warmup.movements-per-account:500}")
+    private int movementsPerAccount;
+
+    @Value("${movement.warmup.concurrency:4}")
+    private int concurrency;
+
+    @Value("${movement.warmup.timeout-ms:20000}")
+    private long timeoutMs;
+
+    public CacheWarmer(HotAccountService hotAccountService, MovementService movementService,
+                       ReactiveMongoTemplate mongoTemplate, VelocityService velocityService) {
+        this.hotAccountService = hotAccountService;
+        this.movementService = movementService;
+        this.mongoTemplate = mongoTemplate;
+        this.velocityService = velocityService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || Boolean.getBoolean(StartupTimingListener.CDS_TRAINING_PROPERTY)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Date since = new Date(System.currentTimeMillis() - DAY_MILLIS);
+
+        Long warmed = hotAccountService.findHotAccounts(accounts)
+                .buffer(BATCH_SIZE)
+                .flatMap(batch -> warm(batch, since), concurrency)
+                .reduce(0L, Long::sum)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .onErrorResume(e -> {
+                    log.warn("Pre-warm incomplete, starting partially cold: {}", e.toString());
+                    return Mono.empty();
+                })
+                .block();
+
+        if (warmed != null) {
+            log.info("✔ Pre-calentamiento: {} cuentas en {} ms",
+                    warmed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private Mono<Long> warm(List<String> batch, Date since) {
+        Mono<Void> movements = movementService.findByAccountNumbers(batch, since, null, movementsPerAccount)
+                .bufferUntilChanged(Movement::getAccountNumber)
+                .doOnNext(m -> velocityService.replay(m.get(0).getAccountNumber(), m))
+                .then();
+        Mono<Void> balances = Flux.fromIterable(batch)
+                .flatMap(accountNumber -> mongoTemplate.findById(accountNumber, AccountBalance.class), concurrency)
+                .then();
+        return Mono.when(movements, balances).thenReturn((long) batch.size());
+    }
+}
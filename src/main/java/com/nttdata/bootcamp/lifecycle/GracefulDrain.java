@@ -0,0 +1,124 @@
+package com.nttdata.bootcamp.lifecycle;
+
+import com.nttdata.bootcamp.kafka.ConsumerConcurrencyController;
+import com.nttdata.bootcamp.service.HotAccountService;
+import com.nttdata.bootcamp.service.KafkaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shutdown drain, before the listener containers and the Kafka/Mongo clients are
+ * closed: stops the concurrency controller, stops every listener container (each
+ * stops after its current record and commits what it processed, see
+ * KafkaConsumerConfig), waits for in-flight saves and publishes, and persists the
+ * hot-account sketch. Runs in the phase of the web server's graceful shutdown, so
+ * HTTP and Kafka drain in parallel, within {@code movement.shutdown.drain-timeout-ms}
+ * (keep it below {@code spring.lifecycle.timeout-per-shutdown-phase}).
+ */
+@Slf4j
+@Component
+public class GracefulDrain implements SmartLifecycle {
+
+    private static final long POLL_MILLIS = 50;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ConsumerConcurrencyController concurrencyController;
+    private final KafkaService kafkaService;
+    private final HotAccountService hotAccountService;
+
+    @Value("${movement.shutdown.drain-timeout-ms:25000}")
+    private long drainTimeoutMs;
+
+    private volatile boolean running;
+
+    public GracefulDrain(KafkaListenerEndpointRegistry registry,
+                         ConsumerConcurrencyController concurrencyController,
+                         KafkaService kafkaService,
+                         HotAccountService hotAccountService) {
+        this.registry = registry;
+        this.concurrencyController = concurrencyController;
+        this.kafkaService = kafkaService;
+        this.hotAccountService = hotAccountService;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // same phase as WebServerGracefulShutdownLifecycle, above the listener containers
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    @Override
+    public void stop() {
+        drain();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        Thread drainer = new Thread(() -> {
+            try {
+                drain();
+            } finally {
+                callback.run();
+            }
+        }, "movement-drain");
+        drainer.start();
+    }
+
+    private void drain() {
+        running = false;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+
+        // 1. no new records
+        concurrencyController.suspend();
+        CountDownLatch stopped = new CountDownLatch(1);
+        registry.stop(stopped::countDown);
+        try {
+            if (!stopped.await(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                log.warn("Listener containers still stopping after the drain timeout");
+            }
+
+            // 2. in-flight saves and publishes
+            while (kafkaService.inFlight() > 0 && remaining(deadline) > 0) {
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int abandoned = kafkaService.inFlight();
+        if (abandoned > 0) {
+            log.warn("Shutdown with {} saves/publishes still in flight", abandoned);
+        }
+
+        // 3. access frequencies for the next instance's pre-warm
+        try {
+            hotAccountService.persist().block(Duration.ofNanos(Math.max(remaining(deadline), 1)));
+        } catch (RuntimeException e) {
+            log.warn("Hot accounts not persisted on shutdown: {}", e.toString());
+        }
+
+        log.info("✔ Drenaje completado en {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
@@ -1,8 +1,20 @@
 package com.nttdata.bootcamp.repository;
 
 import com.nttdata.bootcamp.entity.Movement;
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
 
-//Mongodb Repository
-public interface MovementRepository extends ReactiveCrudRepository<Movement, String> {
+import java.util.Date;
+
+//Mongodb Repository (primary reads: writes and read-your-write lookups)
+public interface MovementRepository extends ReactiveMongoRepository<Movement, String> {
+
+    Mono<Movement> findFirstByMovementNumber(String movementNumber);
+
+    Mono<Long> countByAccountNumber(String accountNumber);
+
+    // time-series lookups by _id: the metaField and timeField keep them on a few buckets
+    Mono<Movement> findFirstByIdAndAccountNumberAndCreationDate(String id, String accountNumber, Date creationDate);
+
+    Mono<Movement> findFirstByIdAndAccountNumber(String id, String accountNumber);
 }
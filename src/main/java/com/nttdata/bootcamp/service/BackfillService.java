@@ -0,0 +1,16 @@
+package com.nttdata.bootcamp.service;
+
+import com.nttdata.bootcamp.entity.dto.BackfillJobDto;
+import com.nttdata.bootcamp.entity.dto.BackfillRequestDto;
+import reactor.core.publisher.Mono;
+
+public interface BackfillService {
+
+    /**
+     * Carga masiva de movimientos históricos desde un fichero (reanudable).
+     * @return el job en estado RUNNING
+     */
+    Mono<BackfillJobDto> start(BackfillRequestDto request);
+
+    Mono<BackfillJobDto> findJob(String id);
+}
@@ -0,0 +1,55 @@
+package com.nttdata.bootcamp.service;
+
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.Movement;
+import reactor.core.publisher.Mono;
+
+public interface BalanceService {
+
+    /**
+     * Marca un movimiento como pendiente antes de guardarlo; {@link #apply(Movement)}
+     * lo suma después de guardado.
+     * @return true si esta llamada lo marcó, false si ya estaba pendiente
+     */
+    Mono<Boolean> markPending(Movement movement);
+
+    /**
+     * Desmarca un movimiento que esta llamada marcó pero que ya estaba guardado
+     * (reentrega de un movimiento ya aplicado).
+     */
+    Mono<Void> unmarkPending(Movement movement);
+
+    /**
+     * Suma el importe (con signo) de un movimiento pendiente al saldo de su cuenta.
+     * Vacío si no estaba pendiente (ya aplicado): reintentarlo no lo cuenta dos veces.
+     */
+    Mono<AccountBalance> apply(Movement movement);
+
+    /**
+     * Marca un movimiento como en reversión antes de eliminarlo.
+     */
+    Mono<Void> markReverting(Movement movement);
+
+    /**
+     * Resta el importe de un movimiento eliminado que estaba en reversión.
+     */
+    Mono<AccountBalance> revert(Movement movement);
+
+    /**
+     * Saldo de la cuenta por clave, solo lectura; vacío hasta que
+     * {@link #rebuild(String)} lo construye.
+     */
+    Mono<AccountBalance> findBalance(String accountNumber);
+
+    /**
+     * Recalcula el saldo con todos los movimientos guardados de la cuenta
+     * (salvo los pendientes, que suma {@link #apply(Movement)}).
+     */
+    Mono<AccountBalance> rebuild(String accountNumber);
+
+    /**
+     * Toma un snapshot (histórico diario) de todos los saldos construidos.
+     * @return número de snapshots creados
+     */
+    Mono<Long> snapshotAll();
+}
@@ -0,0 +1,23 @@
+package com.nttdata.bootcamp.service;
+
+import com.nttdata.bootcamp.entity.dto.ExtractJobDto;
+import com.nttdata.bootcamp.entity.dto.ExtractRequestDto;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+public interface ExtractService {
+
+    /**
+     * Lanza un extracto regulatorio (CSV gzip particionado) en segundo plano.
+     * @return el job en estado RUNNING
+     */
+    Mono<ExtractJobDto> start(ExtractRequestDto request);
+
+    Mono<ExtractJobDto> findJob(String id);
+
+    /**
+     * Ruta de un fichero terminado del job, vacío si no existe.
+     */
+    Mono<Path> findFile(String id, String name);
+}
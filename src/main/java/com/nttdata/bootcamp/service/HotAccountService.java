@@ -0,0 +1,23 @@
+package com.nttdata.bootcamp.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface HotAccountService {
+
+    /**
+     * Registra un acceso a la cuenta en el sketch de frecuencias (en memoria, sin I/O).
+     */
+    void recordAccess(String accountNumber);
+
+    /**
+     * Cuentas más accedidas según lo persistido por todas las instancias, de mayor a menor.
+     */
+    Flux<String> findHotAccounts(int limit);
+
+    /**
+     * Guarda el top-K de esta instancia y elimina las entradas caducadas.
+     * @return número de cuentas guardadas
+     */
+    Mono<Long> persist();
+}
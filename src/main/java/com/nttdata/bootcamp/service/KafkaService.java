@@ -33,4 +33,10 @@ public interface KafkaService {
      * @return Mono<Void> completado cuando todo el flujo termina
      */
     Mono<Void> saveMovementReactive(Movement movement);
+
+    /**
+     * Guardados y publicaciones en curso (suscritos y aún sin terminar).
+     * Se usa al apagar para esperar a que se vacíen.
+     */
+    int inFlight();
 }
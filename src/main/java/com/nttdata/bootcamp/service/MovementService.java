@@ -4,6 +4,9 @@ import com.nttdata.bootcamp.entity.Movement;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Date;
+import java.util.List;
+
 //Interface Service
 public interface MovementService {
 
@@ -12,6 +15,18 @@ public interface MovementService {
 
     public Mono<Movement> findByNumber(String number);
     Flux<Movement> findCommissionByAccountNumber(String accountNumber);
+    Mono<Long> countByAccountNumber(String accountNumber);
+    Flux<Movement> findByAccountNumberAndDateRange(String accountNumber, Date start, Date end);
+    Flux<Movement> findCommissionByAccountNumberAndDateRange(String accountNumber, Date start, Date end);
+
+    /**
+     * Movimientos de varias cuentas (una consulta limitada por cuenta), ordenados por cuenta y
+     * fecha descendente, como máximo {@code limitPerAccount} por cuenta.
+     * @param from inicio (inclusive), opcional
+     * @param to fin (exclusive), opcional
+     */
+    Flux<Movement> findByAccountNumbers(List<String> accountNumbers, Date from, Date to, int limitPerAccount);
+
     public Mono<Movement> saveMovement(Movement movement);
     public Mono<Movement> updateMovement(Movement movement);
     public Mono<Void> deleteMovement(String accountNumber);
@@ -0,0 +1,17 @@
+package com.nttdata.bootcamp.service;
+
+import com.nttdata.bootcamp.entity.dto.ReconciliationReportDto;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReconciliationService {
+
+    /**
+     * Lanza la conciliación de un día (eventos origen vs movimientos vs eventos publicados).
+     * @return el job en estado RUNNING
+     */
+    Mono<ReconciliationReportDto> start(LocalDate day);
+
+    Mono<ReconciliationReportDto> findJob(String id);
+}
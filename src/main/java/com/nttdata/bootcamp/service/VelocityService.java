@@ -0,0 +1,27 @@
+package com.nttdata.bootcamp.service;
+
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.VelocityDto;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface VelocityService {
+
+    /**
+     * Registra un movimiento recién creado en las ventanas de su cuenta, con su fecha de
+     * creación (en memoria, sin I/O).
+     */
+    void record(Movement movement);
+
+    /**
+     * Completa la ventana de una cuenta con sus movimientos persistidos (pre-calentamiento):
+     * solo los anteriores al primer movimiento que la ventana ya registra.
+     */
+    void replay(String accountNumber, List<Movement> movements);
+
+    /**
+     * Número de movimientos y volumen de la cuenta en el último minuto, hora y día.
+     */
+    Mono<VelocityDto> findVelocity(String accountNumber);
+}
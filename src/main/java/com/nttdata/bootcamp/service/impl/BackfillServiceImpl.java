@@ -0,0 +1,567 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.nttdata.bootcamp.config.MovementStorage;
+import com.nttdata.bootcamp.config.SchedulerConfig;
+import com.nttdata.bootcamp.entity.BackfillCheckpoint;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.BackfillJobDto;
+import com.nttdata.bootcamp.entity.dto.BackfillRequestDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import com.nttdata.bootcamp.service.BackfillService;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.KafkaService;
+import com.nttdata.bootcamp.util.Constant;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Backfill of historical movements from CSV (same columns as the regulatory extract)
+ * or NDJSON files. The file is split into line-aligned chunks that are memory-mapped,
+ * parsed and validated in parallel, and written with unordered bulk inserts.
+ * <p>
+ * Files are read from {@code movement.backfill.import-dir} only. Every movement gets a
+ * deterministic id (checkpoint id + line offset), so re-running a partially imported
+ * chunk only produces duplicate-key errors, which are skipped; time-series storage does
+ * not enforce a unique _id, so there a resumed run looks the ids up before inserting.
+ * The balances of a chunk's accounts are recomputed before the chunk is recorded as
+ * completed in {@code backfill_checkpoint}, so completed chunks are not read again on
+ * resume and none of their accounts is left stale.
+ */
+@Slf4j
+@Service
+public class BackfillServiceImpl implements BackfillService {
+
+    private static final int BOUNDARY_SCAN_SIZE = 8 * 1024;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String CSV_HEADER_PREFIX = "movementNumber,";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MovementStorage movementStorage;
+    private final KafkaService kafkaService;
+    private final BalanceService balanceService;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${movement.backfill.chunk-size-bytes:33554432}")
+    private long chunkSize;
+
+    @Value("${movement.backfill.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${movement.backfill.import-dir:${java.io.tmpdir}/movement-imports}")
+    private String importDir;
+
+    public BackfillServiceImpl(ReactiveMongoTemplate mongoTemplate,
+                               MovementStorage movementStorage,
+                               KafkaService kafkaService,
+                               BalanceService balanceService,
+                               ObjectMapper objectMapper,
+                               @Qualifier(SchedulerConfig.BLOCKING_SCHEDULER) Scheduler blockingScheduler) {
+        this.mongoTemplate = mongoTemplate;
+        this.movementStorage = movementStorage;
+        this.kafkaService = kafkaService;
+        this.balanceService = balanceService;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    // ============================================
+    // START
+    // ============================================
+    @Override
+    public Mono<BackfillJobDto> start(BackfillRequestDto request) {
+        return Mono.fromCallable(() -> prepare(request))
+                .subscribeOn(blockingScheduler)
+                .map(job -> {
+                    Job running = jobs.get(job.id);
+                    if (running != null && running.status == JobStatus.RUNNING) {
+                        return running.toDto();
+                    }
+                    jobs.put(job.id, job);
+                    run(job).subscribe(
+                            v -> { },
+                            e -> log.error("Backfill {} failed", job.id, e),
+                            () -> log.info("✔ Backfill {} terminado: {}", job.id, job.toDto()));
+                    return job.toDto();
+                });
+    }
+
+    @Override
+    public Mono<BackfillJobDto> findJob(String id) {
+        return Mono.justOrEmpty(jobs.get(id)).map(Job::toDto);
+    }
+
+    private Job prepare(BackfillRequestDto request) throws IOException {
+        Path file = resolveImport(request.getPath());
+        String format = request.getFormat() != null
+                ? request.getFormat().toLowerCase()
+                : file.toString().endsWith(".csv") ? "csv" : "ndjson";
+        // same file (path, size, mtime) -> same checkpoint
+        String id = UUID.nameUUIDFromBytes((file + "|" + Files.size(file) + "|"
+                + Files.getLastModifiedTime(file).toMillis()).getBytes(StandardCharsets.UTF_8)).toString();
+
+        return new Job(id, file, format,
+                request.getParallelism() != null ? request.getParallelism() : Runtime.getRuntime().availableProcessors(),
+                request.getBatchSize() != null ? request.getBatchSize() : defaultBatchSize,
+                Boolean.TRUE.equals(request.getPublishToKafka()),
+                !Boolean.FALSE.equals(request.getRecomputeBalances()),
+                chunks(file));
+    }
+
+    // relative to the import directory (or absolute inside it), symlinks resolved
+    private Path resolveImport(String path) throws IOException {
+        Path root = Paths.get(importDir).toAbsolutePath().normalize();
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file) || !Files.isReadable(file)
+                || !file.toRealPath().startsWith(root.toRealPath())) {
+            throw new IllegalArgumentException("The file " + path + " is not a readable file under " + root);
+        }
+        return file.toRealPath();
+    }
+
+    // ============================================
+    // RUN
+    // ============================================
+    private Mono<Void> run(Job job) {
+        return mongoTemplate.findById(job.id, BackfillCheckpoint.class)
+                // any earlier run may have left a chunk half imported
+                .doOnNext(checkpoint -> job.resumed = true)
+                .filter(checkpoint -> Long.valueOf(chunkSize).equals(checkpoint.getChunkSize())
+                        && checkpoint.getCompletedChunks() != null)
+                .map(checkpoint -> (Set<Integer>) new HashSet<>(checkpoint.getCompletedChunks()))
+                .defaultIfEmpty(new HashSet<>())
+                .flatMap(done -> started(job, done.isEmpty()).thenReturn(done))
+                .flatMapMany(done -> {
+                    job.chunksDone.set(done.size());
+                    return Flux.range(0, job.chunks.size()).filter(index -> !done.contains(index));
+                })
+                .flatMap(index -> importChunk(job, index)
+                        .flatMap(inserted -> markDone(job, index, inserted)), job.parallelism)
+                .then()
+                .doOnSuccess(v -> job.finish(null))
+                .doOnError(job::finish);
+    }
+
+    // recorded before the first insert, so a crash in the first chunk is still a resume
+    private Mono<Void> started(Job job, boolean noCompletedChunks) {
+        Update update = new Update()
+                .set("path", job.file.toString())
+                .set("chunkSize", chunkSize)
+                .set("modificationDate", new Date());
+        if (noCompletedChunks) {
+            // chunks of another chunk size do not match these
+            update.set("completedChunks", new ArrayList<Integer>());
+        }
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(job.id)), update, BackfillCheckpoint.class)
+                .then();
+    }
+
+    private Mono<Long> importChunk(Job job, int index) {
+        return Mono.defer(() -> {
+            Set<String> accounts = new HashSet<>();
+            return readChunk(job, index)
+                    .doOnNext(movement -> accounts.add(movement.getAccountNumber()))
+                    .buffer(job.batchSize)
+                    .concatMap(batch -> insert(job, batch))
+                    .reduce(0L, Long::sum)
+                    .flatMap(inserted -> job.recomputeBalances
+                            ? Flux.fromIterable(accounts)
+                                    .flatMap(balanceService::rebuild, job.parallelism)
+                                    .then(Mono.just(inserted))
+                            : Mono.just(inserted));
+        });
+    }
+
+    private Flux<Movement> readChunk(Job job, int index) {
+        long[] range = job.chunks.get(index);
+        return Flux.using(
+                        () -> new ChunkReader(job.file, range[0], range[1]),
+                        reader -> Flux.<RawLine>generate(sink -> {
+                            RawLine line = reader.next();
+                            if (line == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(line);
+                            }
+                        }),
+                        ChunkReader::close)
+                .subscribeOn(blockingScheduler)
+                .filter(line -> !line.text.isEmpty()
+                        && !(line.offset == 0 && line.text.startsWith(CSV_HEADER_PREFIX)))
+                .<Movement>handle((line, sink) -> {
+                    Movement movement = parse(job, line);
+                    if (movement != null) {
+                        sink.next(movement);
+                    } else {
+                        job.rejected.incrementAndGet();
+                    }
+                });
+    }
+
+    private Mono<Long> insert(Job job, List<Movement> batch) {
+        if (job.resumed && movementStorage.isTimeSeries()) {
+            return notYetImported(batch).flatMap(missing -> {
+                job.duplicates.addAndGet(batch.size() - missing.size());
+                return missing.isEmpty() ? Mono.just(0L) : insertMany(job, missing);
+            });
+        }
+        return insertMany(job, batch);
+    }
+
+    // time-series collections accept a second document with the same _id
+    private Mono<List<Movement>> notYetImported(List<Movement> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        Date first = batch.get(0).getCreationDate();
+        Date last = first;
+        for (Movement movement : batch) {
+            ids.add(movement.getId());
+            first = movement.getCreationDate().before(first) ? movement.getCreationDate() : first;
+            last = movement.getCreationDate().after(last) ? movement.getCreationDate() : last;
+        }
+        // the creationDate bounds keep the lookup on the batch's buckets
+        Query query = Query.query(Criteria.where("_id").in(ids).and("creationDate").gte(first).lte(last));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Movement.class))
+                .map(document -> String.valueOf(document.get("_id")))
+                .collect(Collectors.toSet())
+                .map(existing -> batch.stream()
+                        .filter(movement -> !existing.contains(movement.getId()))
+                        .collect(Collectors.toList()));
+    }
+
+    private Mono<Long> insertMany(Job job, List<Movement> batch) {
+        List<Document> documents = new ArrayList<>(batch.size());
+        for (Movement movement : batch) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(movement, document);
+            documents.add(document);
+        }
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Movement.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents,
+                        new InsertManyOptions().ordered(false))))
+                .thenReturn(batch)
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    // already imported by a previous (interrupted) run
+                    if (e.getWriteErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                        return Mono.error(e);
+                    }
+                    Set<Integer> duplicates = e.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .collect(Collectors.toSet());
+                    job.duplicates.addAndGet(duplicates.size());
+                    List<Movement> inserted = new ArrayList<>(batch.size() - duplicates.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (!duplicates.contains(i)) {
+                            inserted.add(batch.get(i));
+                        }
+                    }
+                    return Mono.just(inserted);
+                })
+                .flatMap(inserted -> {
+                    job.inserted.addAndGet(inserted.size());
+                    Mono<Void> publish = job.publishToKafka
+                            ? Flux.fromIterable(inserted).concatMap(kafkaService::publishReactive).then()
+                            : Mono.empty();
+                    return publish.thenReturn((long) inserted.size());
+                });
+    }
+
+    private Mono<Long> markDone(Job job, int index, long inserted) {
+        Update update = new Update()
+                .addToSet("completedChunks", index)
+                .inc("inserted", inserted)
+                .set("path", job.file.toString())
+                .set("chunkSize", chunkSize)
+                .set("modificationDate", new Date());
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(job.id)), update, BackfillCheckpoint.class)
+                .doOnSuccess(result -> job.chunksDone.incrementAndGet())
+                .thenReturn(inserted);
+    }
+
+    // ============================================
+    // PARSING / VALIDATION
+    // ============================================
+    private Movement parse(Job job, RawLine line) {
+        Movement movement;
+        try {
+            movement = "csv".equals(job.format) ? parseCsv(line.text) : objectMapper.readValue(line.text, Movement.class);
+        } catch (Exception e) {
+            return null;
+        }
+        if (isBlank(movement.getAccountNumber()) || isBlank(movement.getMovementNumber())
+                || movement.getAmount() == null || movement.getCreationDate() == null) {
+            return null;
+        }
+        movement.setId(job.id + ":" + line.offset);
+        if (movement.getStatus() == null) {
+            movement.setStatus(Constant.STATUS);
+        }
+        if (movement.getModificationDate() == null) {
+            movement.setModificationDate(movement.getCreationDate());
+        }
+        return movement;
+    }
+
+    // movementNumber,accountNumber,dni,typeTransaction,amount,commission,status,creationDate
+    private static Movement parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 8) {
+            throw new IllegalArgumentException("Expected 8 columns");
+        }
+        Movement movement = new Movement();
+        movement.setMovementNumber(emptyToNull(fields.get(0)));
+        movement.setAccountNumber(emptyToNull(fields.get(1)));
+        movement.setDni(emptyToNull(fields.get(2)));
+        movement.setTypeTransaction(emptyToNull(fields.get(3)));
+        movement.setAmount(fields.get(4).isEmpty() ? null : Double.valueOf(fields.get(4)));
+        movement.setCommission(fields.get(5).isEmpty() ? 0d : Double.parseDouble(fields.get(5)));
+        movement.setStatus(emptyToNull(fields.get(6)));
+        movement.setCreationDate(parseDate(fields.get(7)));
+        return movement;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // yyyy-MM-dd or ISO instant
+    private static Date parseDate(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.length() == 10) {
+            return Date.from(LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        return Date.from(Instant.parse(value));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // ============================================
+    // CHUNKS
+    // ============================================
+    private List<long[]> chunks(Path file) throws IOException {
+        long size = Files.size(file);
+        List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + chunkSize);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size);
+                }
+                chunks.add(new long[]{start, end});
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static final class RawLine {
+
+        private final long offset;
+        private final String text;
+
+        private RawLine(long offset, String text) {
+            this.offset = offset;
+            this.text = text;
+        }
+    }
+
+    // Reads the lines of one memory-mapped chunk, single-threaded
+    private static final class ChunkReader implements Closeable {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long start;
+        private byte[] line = new byte[256];
+
+        private ChunkReader(Path file, long start, long end) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            this.start = start;
+        }
+
+        private RawLine next() {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            long offset = start + buffer.position();
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new RawLine(offset, new String(line, 0, length, StandardCharsets.UTF_8).trim());
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // ============================================
+    // JOB STATE
+    // ============================================
+    private static final class Job {
+
+        private final String id;
+        private final Path file;
+        private final String format;
+        private final int parallelism;
+        private final int batchSize;
+        private final boolean publishToKafka;
+        private final boolean recomputeBalances;
+        private final List<long[]> chunks;
+
+        private final AtomicLong chunksDone = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final Date creationDate = new Date();
+
+        private volatile boolean resumed;
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile String error;
+        private volatile Date finishDate;
+
+        private Job(String id, Path file, String format, int parallelism, int batchSize,
+                    boolean publishToKafka, boolean recomputeBalances, List<long[]> chunks) {
+            this.id = id;
+            this.file = file;
+            this.format = format;
+            this.parallelism = Math.max(1, parallelism);
+            this.batchSize = Math.max(1, batchSize);
+            this.publishToKafka = publishToKafka;
+            this.recomputeBalances = recomputeBalances;
+            this.chunks = chunks;
+        }
+
+        private void finish(Throwable failure) {
+            error = failure != null ? failure.toString() : null;
+            finishDate = new Date();
+            status = failure == null ? JobStatus.COMPLETED : JobStatus.FAILED;
+        }
+
+        private BackfillJobDto toDto() {
+            BackfillJobDto dto = new BackfillJobDto();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setError(error);
+            dto.setPath(file.toString());
+            dto.setChunks(chunks.size());
+            dto.setChunksDone(chunksDone.get());
+            dto.setInserted(inserted.get());
+            dto.setDuplicates(duplicates.get());
+            dto.setRejected(rejected.get());
+            dto.setCreationDate(creationDate);
+            dto.setFinishDate(finishDate);
+            return dto;
+        }
+    }
+}
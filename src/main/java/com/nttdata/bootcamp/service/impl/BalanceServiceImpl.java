@@ -0,0 +1,260 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.BalanceSnapshot;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.HotAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance projection maintained from the movement stream: every new movement
+ * atomically increments its account document, so a balance check is a single
+ * key lookup. The document is created by {@link #rebuild(String)}, which sums
+ * every stored movement of the account; until then it is not served.
+ * <p>
+ * A movement is marked pending in the document before it is stored and the
+ * increment removes the mark, so the increment runs at most once however often
+ * it is retried, and a retry after a partial failure still applies a movement
+ * that is stored but pending. A rebuild leaves the pending movements out (their
+ * increment is still to come) and the ones being deleted too (their revert is
+ * then a no-op). Every change bumps the document version and a rebuild only
+ * writes over the version it read, so a rebuild racing a live change is
+ * discarded and run again.
+ */
+@Slf4j
+@Service
+public class BalanceServiceImpl implements BalanceService {
+
+    private static final int MAX_REPLAY_RETRIES = 5;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final HotAccountService hotAccountService;
+
+    @Value("${movement.balance.snapshot.retention-days:7}")
+    private long snapshotRetentionDays;
+
+    public BalanceServiceImpl(ReactiveMongoTemplate mongoTemplate, HotAccountService hotAccountService) {
+        this.mongoTemplate = mongoTemplate;
+        this.hotAccountService = hotAccountService;
+    }
+
+    // ============================================
+    // PENDING MARKS
+    // ============================================
+    // Upserts a document that only tracks the mark when the account has none:
+    // it is not served until a rebuild builds it
+    @Override
+    public Mono<Boolean> markPending(Movement movement) {
+        if (movement.getAccountNumber() == null || movement.getId() == null) {
+            return Mono.just(false);
+        }
+        String id = movement.getId();
+        return Mono.defer(() -> mongoTemplate.findAndModify(byAccount(movement),
+                                new Update().addToSet("pendingIds", id).inc("version", 1),
+                                FindAndModifyOptions.options().upsert(true).returnNew(false),
+                                AccountBalance.class)
+                        .map(previous -> previous.getPendingIds() == null || !previous.getPendingIds().contains(id))
+                        .defaultIfEmpty(true))
+                // two first upserts of the same account: the loser finds the document
+                .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance));
+    }
+
+    @Override
+    public Mono<Void> unmarkPending(Movement movement) {
+        if (movement.getAccountNumber() == null || movement.getId() == null) {
+            return Mono.empty();
+        }
+        return mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(movement.getAccountNumber())
+                                .and("pendingIds").is(movement.getId())),
+                        new Update().pull("pendingIds", movement.getId()).inc("version", 1),
+                        AccountBalance.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> markReverting(Movement movement) {
+        if (movement.getAccountNumber() == null || movement.getId() == null) {
+            return Mono.empty();
+        }
+        return mongoTemplate.upsert(byAccount(movement),
+                        new Update().addToSet("revertingIds", movement.getId()).inc("version", 1),
+                        AccountBalance.class)
+                .then();
+    }
+
+    // ============================================
+    // APPLY / REVERT (only a marked movement)
+    // ============================================
+    @Override
+    public Mono<AccountBalance> apply(Movement movement) {
+        return increment(movement, 1, "pendingIds");
+    }
+
+    @Override
+    public Mono<AccountBalance> revert(Movement movement) {
+        return increment(movement, -1, "revertingIds");
+    }
+
+    private Mono<AccountBalance> increment(Movement movement, int sign, String marks) {
+        if (movement.getAccountNumber() == null || movement.getId() == null) {
+            return Mono.empty();
+        }
+        double amount = movement.getAmount() != null ? movement.getAmount() : 0d;
+        Update update = new Update()
+                .inc("balance", sign * amount)
+                .inc("movementCount", sign)
+                .inc("version", 1)
+                .set("modificationDate", new Date())
+                .pull(marks, movement.getId());
+        if (sign > 0 && movement.getCreationDate() != null) {
+            update.max("lastMovementDate", movement.getCreationDate());
+        }
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(movement.getAccountNumber()).and(marks).is(movement.getId())),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                AccountBalance.class);
+    }
+
+    private static Query byAccount(Movement movement) {
+        return Query.query(Criteria.where("_id").is(movement.getAccountNumber()));
+    }
+
+    // ============================================
+    // FIND BALANCE (read-only, empty until built)
+    // ============================================
+    @Override
+    public Mono<AccountBalance> findBalance(String accountNumber) {
+        hotAccountService.recordAccess(accountNumber);
+        return mongoTemplate.findOne(
+                Query.query(Criteria.where("_id").is(accountNumber).and("built").is(true)),
+                AccountBalance.class);
+    }
+
+    // ============================================
+    // REBUILD (all stored movements)
+    // ============================================
+    // The document (and its version and marks) is read before the movements are
+    // aggregated: any mark, apply or revert in between bumps the version and the
+    // conditional write misses
+    @Override
+    public Mono<AccountBalance> rebuild(String accountNumber) {
+        return Mono.defer(() -> mongoTemplate.findAndModify(
+                                Query.query(Criteria.where("_id").is(accountNumber)),
+                                new Update().setOnInsert("version", 0L),
+                                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                                AccountBalance.class)
+                        .flatMap(current -> replayed(current)
+                                .flatMap(totals -> writeIfUnchanged(current, totals))))
+                .retryWhen(Retry.max(MAX_REPLAY_RETRIES)
+                        .filter(e -> e instanceof OptimisticLockingFailureException
+                                || e instanceof DuplicateKeyException)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnNext(b -> log.info("✔ Saldo reconstruido {}: {}", accountNumber, b.getBalance()));
+    }
+
+    private Mono<Document> replayed(AccountBalance current) {
+        Criteria criteria = Criteria.where("accountNumber").is(current.getAccountNumber());
+        List<String> excluded = new ArrayList<>();
+        if (current.getPendingIds() != null) {
+            excluded.addAll(current.getPendingIds());
+        }
+        if (current.getRevertingIds() != null) {
+            excluded.addAll(current.getRevertingIds());
+        }
+        if (!excluded.isEmpty()) {
+            criteria = criteria.and("_id").nin(excluded);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group()
+                        .sum("amount").as("total")
+                        .count().as("count")
+                        .max("creationDate").as("lastMovementDate"));
+
+        return mongoTemplate.aggregate(aggregation, Movement.class, Document.class)
+                .next()
+                .defaultIfEmpty(new Document());
+    }
+
+    // The reverting marks are cleared: those movements are already left out
+    private Mono<AccountBalance> writeIfUnchanged(AccountBalance current, Document totals) {
+        Criteria criteria = Criteria.where("_id").is(current.getAccountNumber());
+        criteria = current.getVersion() != null
+                ? criteria.and("version").is(current.getVersion())
+                : criteria.and("version").exists(false);
+        Number total = totals.get("total", Number.class);
+        Number count = totals.get("count", Number.class);
+        Update update = new Update()
+                .set("balance", total != null ? total.doubleValue() : 0d)
+                .set("movementCount", count != null ? count.longValue() : 0L)
+                .set("lastMovementDate", totals.get("lastMovementDate", Date.class))
+                .set("modificationDate", new Date())
+                .set("built", true)
+                .set("revertingIds", Collections.emptyList())
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(Query.query(criteria), update,
+                        FindAndModifyOptions.options().returnNew(true), AccountBalance.class)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+                        "Balance of " + current.getAccountNumber() + " changed during the rebuild")));
+    }
+
+    // ============================================
+    // SNAPSHOTS
+    // ============================================
+    @Scheduled(cron = "${movement.balance.snapshot.cron:0 0 2 * * *}")
+    public void scheduledSnapshot() {
+        snapshotAll().subscribe(
+                count -> log.info("✔ Snapshots de saldo creados: {}", count),
+                e -> log.error("Balance snapshot failed", e));
+    }
+
+    // Balance history only: a rebuild never starts from a snapshot. Each one is
+    // as of its balance's last change
+    @Override
+    public Mono<Long> snapshotAll() {
+        return Mono.defer(() -> {
+            Date now = new Date();
+            Date expired = new Date(now.getTime() - TimeUnit.DAYS.toMillis(snapshotRetentionDays));
+
+            return mongoTemplate.find(Query.query(Criteria.where("built").is(true)), AccountBalance.class)
+                    .map(b -> new BalanceSnapshot(null, b.getAccountNumber(), b.getBalance(),
+                            b.getMovementCount(), asOf(b), now))
+                    .buffer(500)
+                    .concatMap(batch -> mongoTemplate.insertAll(batch).count())
+                    .reduce(0L, Long::sum)
+                    .flatMap(count -> mongoTemplate.remove(
+                                    Query.query(new Criteria().orOperator(
+                                            Criteria.where("takenAt").lt(expired),
+                                            Criteria.where("takenAt").exists(false).and("asOf").lt(expired))),
+                                    BalanceSnapshot.class)
+                            .thenReturn(count));
+        });
+    }
+
+    private static Date asOf(AccountBalance balance) {
+        return balance.getModificationDate() != null ? balance.getModificationDate() : new Date();
+    }
+}
@@ -0,0 +1,283 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.config.MongoReadRoutingConfig;
+import com.nttdata.bootcamp.config.SchedulerConfig;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.ExtractFileDto;
+import com.nttdata.bootcamp.entity.dto.ExtractJobDto;
+import com.nttdata.bootcamp.entity.dto.ExtractRequestDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import com.nttdata.bootcamp.jfr.JfrTrace;
+import com.nttdata.bootcamp.jfr.ReportEvent;
+import com.nttdata.bootcamp.service.ExtractService;
+import com.nttdata.bootcamp.util.GzipChannelWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Regulatory extracts: movements of a date range (optionally an account set) are
+ * streamed from Mongo with backpressure, partitioned by account hash and written by
+ * one {@link GzipChannelWriter} per partition, each on its own blocking worker.
+ * Heap usage does not grow with the number of rows. Failed extracts drop their
+ * files; finished jobs and their files are removed after
+ * {@code movement.extract.retention-minutes}.
+ */
+@Slf4j
+@Service
+public class ExtractServiceImpl implements ExtractService {
+
+    private static final String CSV_HEADER =
+            "movementNumber,accountNumber,dni,typeTransaction,amount,commission,status,creationDate";
+    private static final int PARTITION_PREFETCH = 256;
+
+    private final ReactiveMongoTemplate reportMongoTemplate;
+    private final Scheduler blockingScheduler;
+    private final Map<String, ExtractJobDto> jobs = new ConcurrentHashMap<>();
+
+    @Value("${movement.extract.dir:${java.io.tmpdir}/movement-extracts}")
+    private String extractDir;
+
+    @Value("${movement.extract.partitions:4}")
+    private int partitions;
+
+    @Value("${movement.extract.compression-level:6}")
+    private int compressionLevel;
+
+    @Value("${movement.extract.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    public ExtractServiceImpl(
+            @Qualifier(MongoReadRoutingConfig.REPORT_TEMPLATE) ReactiveMongoTemplate reportMongoTemplate,
+            @Qualifier(SchedulerConfig.BLOCKING_SCHEDULER) Scheduler blockingScheduler) {
+        this.reportMongoTemplate = reportMongoTemplate;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    // ============================================
+    // START
+    // ============================================
+    @Override
+    public Mono<ExtractJobDto> start(ExtractRequestDto request) {
+        ExtractJobDto job = new ExtractJobDto();
+        job.setId(UUID.randomUUID().toString());
+        job.setStatus(JobStatus.RUNNING);
+        job.setFrom(request.getFrom());
+        job.setTo(request.getTo());
+        job.setAccountNumbers(request.getAccountNumbers());
+        job.setCreationDate(new Date());
+        jobs.put(job.getId(), job);
+
+        JfrTrace.mono(() -> new ReportEvent("extract", null), run(job)).subscribe(
+                rows -> log.info("✔ Extracto {} generado: {} filas", job.getId(), rows),
+                e -> log.error("Extract {} failed", job.getId(), e));
+
+        return Mono.just(job);
+    }
+
+    private Mono<Long> run(ExtractJobDto job) {
+        return Mono.fromCallable(() -> openWriters(job))
+                .subscribeOn(blockingScheduler)
+                .doOnError(e -> finish(job, new GzipChannelWriter[0], e))
+                .flatMap(writers -> movements(job)
+                        .groupBy(m -> partitionOf(m.getAccountNumber()), PARTITION_PREFETCH)
+                        .flatMap(partition -> partition
+                                .publishOn(blockingScheduler, PARTITION_PREFETCH)
+                                .doOnNext(m -> writeRow(writers[partition.key()], m))
+                                .count(), partitions)
+                        .reduce(0L, Long::sum)
+                        .publishOn(blockingScheduler)
+                        .doOnSuccess(rows -> finish(job, writers, null))
+                        .doOnError(e -> finish(job, writers, e)));
+    }
+
+    private Flux<Movement> movements(ExtractJobDto job) {
+        Criteria criteria = Criteria.where("creationDate").gte(job.getFrom()).lt(job.getTo());
+        if (job.getAccountNumbers() != null && !job.getAccountNumbers().isEmpty()) {
+            criteria = criteria.and("accountNumber").in(job.getAccountNumbers());
+        }
+        return reportMongoTemplate.find(Query.query(criteria), Movement.class);
+    }
+
+    private int partitionOf(String accountNumber) {
+        return Math.floorMod(accountNumber != null ? accountNumber.hashCode() : 0, partitions);
+    }
+
+    // ============================================
+    // FILES
+    // ============================================
+    private GzipChannelWriter[] openWriters(ExtractJobDto job) throws IOException {
+        Path dir = Files.createDirectories(Paths.get(extractDir, job.getId()));
+        GzipChannelWriter[] writers = new GzipChannelWriter[partitions];
+        try {
+            for (int p = 0; p < partitions; p++) {
+                writers[p] = new GzipChannelWriter(dir.resolve(fileName(p)), compressionLevel);
+                writers[p].writeLine(CSV_HEADER);
+            }
+            return writers;
+        } catch (IOException | RuntimeException e) {
+            for (GzipChannelWriter writer : writers) {
+                closeQuietly(writer);
+            }
+            throw e;
+        }
+    }
+
+    private void finish(ExtractJobDto job, GzipChannelWriter[] writers, Throwable error) {
+        Throwable failure = error;
+        List<ExtractFileDto> files = new ArrayList<>();
+        for (int p = 0; p < writers.length; p++) {
+            try {
+                writers[p].close();
+                Path file = Paths.get(extractDir, job.getId(), fileName(p));
+                // rows without the header line
+                files.add(new ExtractFileDto(file.getFileName().toString(),
+                        writers[p].getRows() - 1, Files.size(file)));
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            // partial files are never served
+            files.clear();
+            delete(Paths.get(extractDir, job.getId()));
+        }
+        job.setFiles(files);
+        job.setStatus(failure == null ? JobStatus.COMPLETED : JobStatus.FAILED);
+        job.setError(failure != null ? failure.toString() : null);
+        job.setFinishDate(new Date());
+    }
+
+    // ============================================
+    // CLEANUP
+    // ============================================
+    // finished jobs past the retention, plus directories no job knows about
+    // (left by a previous run of the service)
+    @Scheduled(fixedDelayString = "${movement.extract.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishDate() != null && job.getFinishDate().getTime() < cutoff);
+
+        Path root = Paths.get(extractDir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            List<Path> expired = dirs
+                    .filter(dir -> !jobs.containsKey(dir.getFileName().toString()))
+                    .filter(dir -> lastModified(dir) < cutoff)
+                    .collect(Collectors.toList());
+            expired.forEach(ExtractServiceImpl::delete);
+            if (!expired.isEmpty()) {
+                log.info("✔ Extractos expirados eliminados: {}", expired.size());
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up extracts in {}: {}", root, e.toString());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static void delete(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", dir, e.toString());
+        }
+    }
+
+    private static void closeQuietly(GzipChannelWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // already failing: the first error is reported
+        }
+    }
+
+    private static String fileName(int partition) {
+        return String.format("movements-part-%03d.csv.gz", partition);
+    }
+
+    private static void writeRow(GzipChannelWriter writer, Movement m) {
+        try {
+            writer.writeLine(String.join(",",
+                    csv(m.getMovementNumber()),
+                    csv(m.getAccountNumber()),
+                    csv(m.getDni()),
+                    csv(m.getTypeTransaction()),
+                    csv(m.getAmount()),
+                    csv(m.getCommission()),
+                    csv(m.getStatus()),
+                    m.getCreationDate() != null
+                            ? DateTimeFormatter.ISO_INSTANT.format(m.getCreationDate().toInstant())
+                            : ""));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // ============================================
+    // LOOKUPS
+    // ============================================
+    @Override
+    public Mono<ExtractJobDto> findJob(String id) {
+        return Mono.justOrEmpty(jobs.get(id));
+    }
+
+    @Override
+    public Mono<Path> findFile(String id, String name) {
+        // only files listed by a completed job: no path traversal
+        return findJob(id)
+                .filter(job -> job.getStatus() == JobStatus.COMPLETED)
+                .filter(job -> job.getFiles().stream().anyMatch(f -> f.getName().equals(name)))
+                .map(job -> Paths.get(extractDir, id, name));
+    }
+}
@@ -0,0 +1,103 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.HotAccount;
+import com.nttdata.bootcamp.service.HotAccountService;
+import com.nttdata.bootcamp.util.HotKeySketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot accounts: every account read feeds a count-min sketch with top-K tracking
+ * (fixed memory, whatever the number of accounts). The top-K is upserted into
+ * {@code hot_account} periodically and on shutdown; a new instance pre-warms the
+ * accounts with the highest scores written by any instance. Instances merge with
+ * {@code $max}, so one with little traffic does not overwrite a busier one's score.
+ * The sketch decays on every persist, so it follows recent traffic. A stored score
+ * keeps its peak while some instance still reports the account, and expires once
+ * none has for the retention period.
+ */
+@Slf4j
+@Service
+public class HotAccountServiceImpl implements HotAccountService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final HotKeySketch sketch;
+
+    @Value("${movement.hot-accounts.retention-hours:48}")
+    private long retentionHours;
+
+    public HotAccountServiceImpl(ReactiveMongoTemplate mongoTemplate,
+                                 @Value("${movement.hot-accounts.sketch-depth:4}") int depth,
+                                 @Value("${movement.hot-accounts.sketch-width:16384}") int width,
+                                 @Value("${movement.hot-accounts.top-k:500}") int topK) {
+        this.mongoTemplate = mongoTemplate;
+        this.sketch = new HotKeySketch(depth, width, topK);
+    }
+
+    // ============================================
+    // RECORD
+    // ============================================
+    @Override
+    public void recordAccess(String accountNumber) {
+        if (accountNumber != null) {
+            sketch.add(accountNumber, 1);
+        }
+    }
+
+    // ============================================
+    // FIND
+    // ============================================
+    @Override
+    public Flux<String> findHotAccounts(int limit) {
+        return mongoTemplate.find(
+                        new Query().with(Sort.by(Sort.Direction.DESC, "score")).limit(limit),
+                        HotAccount.class)
+                .map(HotAccount::getAccountNumber);
+    }
+
+    // ============================================
+    // PERSIST
+    // ============================================
+    @Scheduled(fixedDelayString = "${movement.hot-accounts.persist-interval-ms:300000}",
+            initialDelayString = "${movement.hot-accounts.persist-interval-ms:300000}")
+    public void scheduledPersist() {
+        persist().subscribe(
+                count -> log.info("✔ Cuentas frecuentes guardadas: {}", count),
+                e -> log.error("Hot account persist failed", e));
+    }
+
+    @Override
+    public Mono<Long> persist() {
+        return Mono.defer(() -> {
+            Date now = new Date();
+            Date expired = new Date(now.getTime() - TimeUnit.HOURS.toMillis(retentionHours));
+            // snapshot, then decay: the next period starts from half the weight
+            List<Map.Entry<String, Long>> top = sketch.top();
+            sketch.decay();
+
+            return Flux.fromIterable(top)
+                    .flatMap(e -> mongoTemplate.upsert(
+                            Query.query(Criteria.where("_id").is(e.getKey())),
+                            new Update().max("score", e.getValue()).set("modificationDate", now),
+                            HotAccount.class), 16)
+                    .count()
+                    .flatMap(count -> mongoTemplate.remove(
+                                    Query.query(Criteria.where("modificationDate").lt(expired)), HotAccount.class)
+                            .thenReturn(count));
+        });
+    }
+}
@@ -1,45 +1,81 @@
 package com.nttdata.bootcamp.service.impl;
 
+import com.nttdata.bootcamp.config.MovementStorage;
 import com.nttdata.bootcamp.entity.Movement;
 import com.nttdata.bootcamp.entity.dto.*;
 import com.nttdata.bootcamp.entity.enums.EventType;
 import com.nttdata.bootcamp.events.*;
+import com.nttdata.bootcamp.jfr.JfrTrace;
+import com.nttdata.bootcamp.jfr.KafkaHandlerEvent;
+import com.nttdata.bootcamp.jfr.MovementPublishEvent;
+import com.nttdata.bootcamp.jfr.MovementSaveEvent;
+import com.nttdata.bootcamp.jfr.RepositoryCallEvent;
 import com.nttdata.bootcamp.repository.MovementRepository;
+import com.nttdata.bootcamp.service.BalanceService;
 import com.nttdata.bootcamp.service.KafkaService;
 import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
 import com.nttdata.bootcamp.util.Constant;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import reactor.core.publisher.Mono;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderRecord;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
 public class KafkaServiceImpl implements KafkaService {
 
     private final MovementRepository movementRepository;
+    private final MovementStorage movementStorage;
     private final MovementService movementService;
+    private final BalanceService balanceService;
+    private final VelocityService velocityService;
     private final KafkaSender<String, EventKafka<?>> reactiveSender;
+    private final Timer mongoSaveTimer;
+    // saves and publishes subscribed and not yet terminated, awaited on shutdown
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     @Value("${topic.movement.name}")
     private String topicMovement;
 
+    @Value("${movement.kafka.handler-timeout-ms:30000}")
+    private long handlerTimeoutMs;
+
     public KafkaServiceImpl(
             MovementRepository movementRepository,
+            MovementStorage movementStorage,
             MovementService movementService,
-            KafkaSender<String, EventKafka<?>> reactiveSender) {
+            BalanceService balanceService,
+            VelocityService velocityService,
+            KafkaSender<String, EventKafka<?>> reactiveSender,
+            MeterRegistry meterRegistry) {
 
         this.movementRepository = movementRepository;
+        this.movementStorage = movementStorage;
         this.movementService = movementService;
+        this.balanceService = balanceService;
+        this.velocityService = velocityService;
         this.reactiveSender = reactiveSender;
+        this.mongoSaveTimer = Timer.builder(Constant.METRIC_MONGO_SAVE)
+                .description("Mongo save latency on the Kafka ingestion path")
+                .register(meterRegistry);
     }
 
     // ==========================
@@ -48,7 +84,8 @@ public class KafkaServiceImpl implements KafkaService {
     public Mono<Void> publishReactive(Movement movement) {
 
         MovementCreatedEventKafka event = new MovementCreatedEventKafka();
-        event.setId(UUID.randomUUID().toString());
+        // same id on a re-publish, so consumers can drop the duplicate
+        event.setId(movement.getId() != null ? movement.getId() : UUID.randomUUID().toString());
         event.setDate(new Date());
         event.setType(EventType.CREATED);
         event.setData(movement);
@@ -56,19 +93,105 @@ public class KafkaServiceImpl implements KafkaService {
         SenderRecord<String, EventKafka<?>, Void> record =
                 SenderRecord.create(topicMovement, null, null, event.getId(), event, null);
 
-        return reactiveSender.send(Mono.just(record))
-                .doOnNext(res -> log.info("✔ Enviado a Kafka: {}", movement.getMovementNumber()))
-                .then();
+        return JfrTrace.mono(() -> new MovementPublishEvent(topicMovement, movement.getAccountNumber(),
+                        movement.getTypeTransaction(), movement.getMovementNumber()),
+                reactiveSender.send(Mono.just(record))
+                        .doOnNext(res -> log.info("✔ Enviado a Kafka: {}", movement.getMovementNumber()))
+                        .then())
+                .transform(this::tracked);
     }
 
     // ==========================
     // GUARDAR REACTIVO
     // ==========================
+    // The movement carries a deterministic _id (see movementId) and, from the event
+    // date, a stable creationDate: a retried or redelivered event finds it already
+    // stored, applies it if a failed attempt left it pending in the balance (the
+    // velocity is recorded with that apply) and publishes it again.
     @Override
     public Mono<Void> saveMovementReactive(Movement movement) {
-        return movementRepository.save(movement)
-                .doOnNext(m -> log.info("✔ Movimiento guardado: {}", m.getMovementNumber()))
-                .flatMap(this::publishReactive);
+        Mono<Void> save = Mono.defer(() -> {
+            // without an event date a retry gets another creationDate: the
+            // time-series lookup of a stored copy is bounded by the account only
+            boolean stableDate = movement.getCreationDate() != null;
+            if (!stableDate) {
+                movement.setCreationDate(new Date());
+            }
+            long start = System.nanoTime();
+            return JfrTrace.mono(() -> new RepositoryCallEvent("save", movement.getAccountNumber(),
+                            movement.getTypeTransaction()), insertOnce(movement, stableDate))
+                    .doOnSuccess(i -> mongoSaveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .flatMap(inserted -> {
+                        if (inserted) {
+                            log.info("✔ Movimiento guardado: {}", movement.getMovementNumber());
+                            return Mono.just(movement);
+                        }
+                        log.info("Movimiento ya guardado, se completa y reenvía: {}", movement.getMovementNumber());
+                        // the stored copy: its commission was fixed by the first attempt
+                        return storedCopy(movement, stableDate).defaultIfEmpty(movement);
+                    })
+                    .flatMap(stored -> balanceService.apply(stored)
+                            .doOnNext(balance -> velocityService.record(stored))
+                            .thenReturn(stored))
+                    .flatMap(this::publishReactive);
+        });
+        return JfrTrace.mono(() -> new MovementSaveEvent(movement.getAccountNumber(),
+                movement.getTypeTransaction(), movement.getMovementNumber()), save)
+                .transform(this::tracked);
+    }
+
+    // true when this call stored the movement, false when its _id already exists
+    private Mono<Boolean> insertOnce(Movement movement, boolean stableDate) {
+        // marked pending first: the balance applies only a marked movement
+        Mono<Boolean> insert = Mono.defer(() -> balanceService.markPending(movement))
+                .flatMap(marked -> movementRepository.insert(movement)
+                        .thenReturn(true)
+                        .onErrorResume(DuplicateKeyException.class, e -> marked
+                                // already stored and applied: drop this attempt's mark
+                                ? balanceService.unmarkPending(movement).thenReturn(false)
+                                : Mono.just(false)));
+        if (movement.getId() == null || !movementStorage.isTimeSeries()) {
+            return insert;
+        }
+        // time-series collections do not enforce a unique _id: look it up first
+        // (retries of a record run one after another, never concurrently)
+        return storedCopy(movement, stableDate)
+                .hasElement()
+                .flatMap(exists -> exists ? Mono.just(false) : insert);
+    }
+
+    private Mono<Movement> storedCopy(Movement movement, boolean stableDate) {
+        if (!movementStorage.isTimeSeries()) {
+            return movementRepository.findById(movement.getId());
+        }
+        return stableDate
+                ? movementRepository.findFirstByIdAndAccountNumberAndCreationDate(
+                        movement.getId(), movement.getAccountNumber(), movement.getCreationDate())
+                : movementRepository.findFirstByIdAndAccountNumber(movement.getId(), movement.getAccountNumber());
+    }
+
+    /**
+     * Movement _id derived from the source event: {@code <type>:<event id>}, or
+     * {@code <type>:<source number>} for events published without an id.
+     */
+    static String movementId(String typeTransaction, String eventId, String sourceNumber) {
+        String key = eventId != null ? eventId : sourceNumber;
+        if (key == null) {
+            // poison message: without a key a retry could not be told apart
+            throw new IllegalArgumentException(typeTransaction + " event without id");
+        }
+        return typeTransaction + ":" + key;
+    }
+
+    @Override
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private Mono<Void> tracked(Mono<Void> operation) {
+        return operation
+                .doOnSubscribe(s -> inFlight.incrementAndGet())
+                .doFinally(signal -> inFlight.decrementAndGet());
     }
 
 
@@ -76,10 +199,9 @@ public class KafkaServiceImpl implements KafkaService {
     // HANDLER GENERAL
     // ==========================
 
-    private Mono<Void> handleDeposit(DepositKafkaDto dto) {
+    private Mono<Void> handleDeposit(String eventId, Date eventDate, DepositKafkaDto dto) {
 
-        return movementService.findByAccountNumber(dto.getAccountNumber())
-                .count()
+        return movementService.countByAccountNumber(dto.getAccountNumber())
                 .map(count -> count > Constant.COUNT_TRANSACTIONS ?
                         Constant.COMMISSION_TRANSACTIONS :
                         dto.getCommission())
@@ -88,11 +210,12 @@ public class KafkaServiceImpl implements KafkaService {
                     Movement movement = new Movement();
                     movement.setCommission(comm);
                     movement.setDni(dto.getDni());
+                    movement.setId(movementId("DEPOSIT", eventId, dto.getDepositNumber()));
                     movement.setMovementNumber(dto.getDepositNumber());
                     movement.setAccountNumber(dto.getAccountNumber());
                     movement.setAmount(dto.getAmount());
                     movement.setTypeTransaction("DEPOSIT");
-                    movement.setCreationDate(new Date());
+                    movement.setCreationDate(eventDate);
                     movement.setModificationDate(new Date());
                     movement.setStatus(Constant.STATUS);
 
@@ -100,10 +223,9 @@ public class KafkaServiceImpl implements KafkaService {
                 });
     }
 
-    private Mono<Void> handleWithdrawal(WithdrawalKafkaDto dto) {
+    private Mono<Void> handleWithdrawal(String eventId, Date eventDate, WithdrawalKafkaDto dto) {
 
-        return movementService.findByAccountNumber(dto.getAccountNumber())
-                .count()
+        return movementService.countByAccountNumber(dto.getAccountNumber())
                 .map(count -> count > Constant.COUNT_TRANSACTIONS ?
                         Constant.COMMISSION_TRANSACTIONS :
                         dto.getCommission())
@@ -112,11 +234,12 @@ public class KafkaServiceImpl implements KafkaService {
                     Movement movement = new Movement();
                     movement.setCommission(comm);
                     movement.setDni(dto.getDni());
+                    movement.setId(movementId("WITHDRAWAL", eventId, dto.getWithdrawalNumber()));
                     movement.setMovementNumber(dto.getWithdrawalNumber());
                     movement.setAccountNumber(dto.getAccountNumber());
                     movement.setAmount(dto.getAmount() * -1);
                     movement.setTypeTransaction("WITHDRAWAL");
-                    movement.setCreationDate(new Date());
+                    movement.setCreationDate(eventDate);
                     movement.setModificationDate(new Date());
                     movement.setStatus(Constant.STATUS);
 
@@ -124,50 +247,59 @@ public class KafkaServiceImpl implements KafkaService {
                 });
     }
 
-    private Mono<Void> handlePayment(PaymentKafkaDto dto) {
+    private Mono<Void> handlePayment(String eventId, Date eventDate, PaymentKafkaDto dto) {
 
         Movement movement = new Movement();
         movement.setDni(dto.getDni());
+        movement.setId(movementId("PAYMENT", eventId, dto.getPaymentNumber()));
         movement.setMovementNumber(dto.getPaymentNumber());
         movement.setAccountNumber(dto.getAccountNumber());
         movement.setAmount(dto.getAmount());
         movement.setCommission(dto.getCommission());
         movement.setTypeTransaction("PAYMENT");
-        movement.setCreationDate(new Date());
+        movement.setCreationDate(eventDate);
         movement.setModificationDate(new Date());
         movement.setStatus(Constant.STATUS);
 
         return saveMovementReactive(movement);
     }
 
-    private Mono<Void> handleCharge(ChargeConsumptionKafkaDto dto) {
+    private Mono<Void> handleCharge(String eventId, Date eventDate, ChargeConsumptionKafkaDto dto) {
 
         Movement movement = new Movement();
         movement.setDni(dto.getDni());
+        movement.setId(movementId("CHARGE", eventId, dto.getChargeNumber()));
         movement.setMovementNumber(dto.getChargeNumber());
         movement.setAccountNumber(dto.getAccountNumber());
         movement.setAmount(dto.getAmount() * -1);
         movement.setCommission(dto.getCommission());
         movement.setTypeTransaction("CHARGE");
-        movement.setCreationDate(new Date());
+        movement.setCreationDate(eventDate);
         movement.setModificationDate(new Date());
         movement.setStatus(Constant.STATUS);
 
         return saveMovementReactive(movement);
     }
 
-    private Mono<Void> handleVirtualCoin(VirtualCoinKafkaDto dto) {
+    private Mono<Void> handleVirtualCoin(String eventId, Date eventDate, VirtualCoinKafkaDto dto) {
 
+        if (dto.getFlagDebitCard() == null) {
+            // poison message: no retry, straight to the DLT
+            return Mono.error(new IllegalArgumentException("VirtualCoin event without flagDebitCard"));
+        }
         if (!dto.getFlagDebitCard()) return Mono.empty();
 
         Movement movement = new Movement();
         movement.setDni(dto.getDni());
         movement.setAccountNumber(dto.getNumberAccount());
-        movement.setMovementNumber(UUID.randomUUID().toString());
+        movement.setId(movementId("VIRTUAL_COIN", eventId, null));
+        // no source number: derived from the event, so a retry keeps it
+        movement.setMovementNumber(UUID.nameUUIDFromBytes(
+                movement.getId().getBytes(StandardCharsets.UTF_8)).toString());
         movement.setAmount(dto.getMount());
         movement.setCommission(0.00);
         movement.setTypeTransaction("VIRTUAL_COIN");
-        movement.setCreationDate(new Date());
+        movement.setCreationDate(eventDate);
         movement.setModificationDate(new Date());
         movement.setStatus(Constant.STATUS);
 
@@ -175,66 +307,97 @@ public class KafkaServiceImpl implements KafkaService {
     }
 
     // ==========================
-    // LISTENERS REACTIVOS
+    // LISTENERS
     // ==========================
+    // Each record waits for its handler so failures reach the container:
+    // they are retried through the retry topics and end in the DLT
+    // (see KafkaRetryTopicConfig) without blocking the partition.
+
+    private void await(String listener, String accountNumber, String typeTransaction, Mono<Void> handler) {
+        JfrTrace.mono(() -> new KafkaHandlerEvent(listener, accountNumber, typeTransaction), handler)
+                .block(Duration.ofMillis(handlerTimeoutMs));
+    }
+
+    private static <T> T requireData(T dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Event without data");
+        }
+        return dto;
+    }
 
     @KafkaListener(
+            id = Constant.LISTENER_DEPOSIT, idIsGroup = false,
             topics = "${topic.customer.name:topic_deposit}",
-            groupId = "grupo1")
+            groupId = Constant.KAFKA_GROUP_DEPOSIT)
     public void onDeposit(EventKafka<?> event) {
         if (event instanceof DepositCreatedEventKafka) {
             DepositCreatedEventKafka d = (DepositCreatedEventKafka) event;
             log.info("Received deposit event id={} data={}",
                     d.getId(), d.getData());
             // EXTRAER EL DTO CORRECTO
-            DepositKafkaDto dto = d.getData();
+            DepositKafkaDto dto = requireData(d.getData());
             // LLAMAR AL HANDLER CON EL DTO CORRECTO
-            handleDeposit(dto).subscribe();
+            await(Constant.LISTENER_DEPOSIT, dto.getAccountNumber(), "DEPOSIT", handleDeposit(d.getId(), d.getDate(), dto));
         }
     }
 
 
-    @KafkaListener(topics = "${topic.customer.name:topic_withdrawal}", groupId = "grupo1")
+    @KafkaListener(id = Constant.LISTENER_WITHDRAWAL, idIsGroup = false,
+            topics = "${topic.customer.name:topic_withdrawal}", groupId = Constant.KAFKA_GROUP_WITHDRAWAL)
     public void onWithdrawal(EventKafka<?> event) {
         if (event instanceof WithdrawalCreatedEventKafka) {
             WithdrawalCreatedEventKafka w = (WithdrawalCreatedEventKafka) event;
             log.info("Withdrawal recibido: {}", w.getData());
-            WithdrawalKafkaDto dto = w.getData();
-            handleWithdrawal(dto).subscribe();
+            WithdrawalKafkaDto dto = requireData(w.getData());
+            await(Constant.LISTENER_WITHDRAWAL, dto.getAccountNumber(), "WITHDRAWAL", handleWithdrawal(w.getId(), w.getDate(), dto));
         }
     }
 
 
-    @KafkaListener(topics = "${topic.customer.name:topic_payment}", groupId = "grupo1")
+    @KafkaListener(id = Constant.LISTENER_PAYMENT, idIsGroup = false,
+            topics = "${topic.customer.name:topic_payment}", groupId = Constant.KAFKA_GROUP_PAYMENT)
     public void onPayment(EventKafka<?> event) {
         if (event instanceof PaymentCreatedEventKafka) {
             PaymentCreatedEventKafka p = (PaymentCreatedEventKafka) event;
             log.info("Payment recibido: {}", p.getData());
-            PaymentKafkaDto dto = p.getData();
-            handlePayment(dto).subscribe();
+            PaymentKafkaDto dto = requireData(p.getData());
+            await(Constant.LISTENER_PAYMENT, dto.getAccountNumber(), "PAYMENT", handlePayment(p.getId(), p.getDate(), dto));
         }
     }
 
 
-    @KafkaListener(topics = "${topic.customer.name:topic_charge}", groupId = "grupo1")
+    @KafkaListener(id = Constant.LISTENER_CHARGE, idIsGroup = false,
+            topics = "${topic.customer.name:topic_charge}", groupId = Constant.KAFKA_GROUP_CHARGE)
     public void onCharge(EventKafka<?> event) {
 
         if (event instanceof ChargeConsumptionCreatedEventKafka) {
             ChargeConsumptionCreatedEventKafka c = (ChargeConsumptionCreatedEventKafka) event;
             log.info("Charge recibido: {}", c.getData());
-            ChargeConsumptionKafkaDto dto = c.getData();
-            handleCharge(dto).subscribe();
+            ChargeConsumptionKafkaDto dto = requireData(c.getData());
+            await(Constant.LISTENER_CHARGE, dto.getAccountNumber(), "CHARGE", handleCharge(c.getId(), c.getDate(), dto));
         }
     }
 
-    @KafkaListener(topics = "${topic.customer.name:topic_virtualCoin}", groupId = "grupo1")
+    @KafkaListener(id = Constant.LISTENER_VIRTUAL_COIN, idIsGroup = false,
+            topics = "${topic.customer.name:topic_virtualCoin}", groupId = Constant.KAFKA_GROUP_VIRTUAL_COIN)
     public void onVirtualCoin(EventKafka<?> event) {
         if (event instanceof VirtualCoinCreatedEventKafka) {
             VirtualCoinCreatedEventKafka v = (VirtualCoinCreatedEventKafka) event;
             log.info("VirtualCoin recibido: {}", v.getData());
-            VirtualCoinKafkaDto dto = v.getData();
-            handleVirtualCoin(dto).subscribe();
+            VirtualCoinKafkaDto dto = requireData(v.getData());
+            await(Constant.LISTENER_VIRTUAL_COIN, dto.getNumberAccount(), "VIRTUAL_COIN", handleVirtualCoin(v.getId(), v.getDate(), dto));
         }
     }
 
+    // ==========================
+    // DEAD LETTER
+    // ==========================
+    public void onDeadLetter(EventKafka<?> event,
+                             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                             @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) byte[] error) {
+        log.error("✘ Evento enviado a DLT {} id={} error={}",
+                topic, event != null ? event.getId() : null,
+                error != null ? new String(error, StandardCharsets.UTF_8) : null);
+    }
+
 }
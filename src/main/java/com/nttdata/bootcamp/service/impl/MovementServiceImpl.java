@@ -1,26 +1,65 @@
 package com.nttdata.bootcamp.service.impl;
 
+import com.nttdata.bootcamp.config.MongoReadRoutingConfig;
 import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.jfr.JfrTrace;
+import com.nttdata.bootcamp.jfr.RepositoryCallEvent;
 import com.nttdata.bootcamp.repository.MovementRepository;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.HotAccountService;
 import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Date;
+import java.util.List;
+
 //Service implementation
 @Service
 public class MovementServiceImpl implements MovementService {
 
+    // per-account batch queries running at once
+    private static final int BATCH_CONCURRENCY = 4;
+
+    // Primary: writes and read-your-write lookups
     @Autowired
     private MovementRepository movementRepository;
 
+    @Autowired
+    private BalanceService balanceService;
+
+    // account reads feed the access-frequency sketch used to pre-warm new instances
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    // Secondary (configurable read preference): report and listing reads
+    @Autowired
+    @Qualifier(MongoReadRoutingConfig.REPORT_TEMPLATE)
+    private ReactiveMongoTemplate reportMongoTemplate;
+
+    // identical concurrent lookups share one query
+    private final SingleFlight singleFlight;
+
+    public MovementServiceImpl(MeterRegistry meterRegistry) {
+        this.singleFlight = new SingleFlight("movement", meterRegistry);
+    }
+
     // ============================================
     // FIND ALL
     // ============================================
     @Override
     public Flux<Movement> findAll() {
-        return movementRepository.findAll();
+        return reportMongoTemplate.findAll(Movement.class);
     }
 
     // ============================================
@@ -28,9 +67,12 @@ public class MovementServiceImpl implements MovementService {
     // ============================================
     @Override
     public Flux<Movement> findByAccountNumber(String accountNumber) {
-        return movementRepository
-                .findAll()
-                .filter(m -> accountNumber.equals(m.getAccountNumber()));
+        hotAccountService.recordAccess(accountNumber);
+        return singleFlight.flux("findByAccountNumber", accountNumber, () -> JfrTrace.flux(
+                () -> new RepositoryCallEvent("findByAccountNumber", accountNumber, null),
+                reportMongoTemplate.find(
+                        Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                        Movement.class)));
     }
 
     // ============================================
@@ -38,12 +80,75 @@ public class MovementServiceImpl implements MovementService {
     // ============================================
     @Override
     public Flux<Movement> findCommissionByAccountNumber(String accountNumber) {
-        return movementRepository
-                .findAll()
-                .filter(m ->
-                        accountNumber.equals(m.getAccountNumber())
-                                && m.getCommission() > 0
-                );
+        return reportMongoTemplate.find(
+                Query.query(Criteria.where("accountNumber").is(accountNumber)
+                        .and("commission").gt(0)),
+                Movement.class);
+    }
+
+    // ============================================
+    // FIND BY ACCOUNT AND DATE RANGE (exclusive bounds)
+    // ============================================
+    // accountNumber + creationDate range: served by the (accountNumber, creationDate)
+    // index, or by bucket pruning in time-series mode
+    @Override
+    public Flux<Movement> findByAccountNumberAndDateRange(String accountNumber, Date start, Date end) {
+        hotAccountService.recordAccess(accountNumber);
+        return JfrTrace.flux(() -> new RepositoryCallEvent("findByAccountNumberAndDateRange", accountNumber, null),
+                reportMongoTemplate.find(
+                        Query.query(Criteria.where("accountNumber").is(accountNumber)
+                                .and("creationDate").gt(start).lt(end)),
+                        Movement.class));
+    }
+
+    @Override
+    public Flux<Movement> findCommissionByAccountNumberAndDateRange(String accountNumber, Date start, Date end) {
+        hotAccountService.recordAccess(accountNumber);
+        return JfrTrace.flux(() -> new RepositoryCallEvent("findCommissionByAccountNumberAndDateRange", accountNumber, null),
+                reportMongoTemplate.find(
+                        Query.query(Criteria.where("accountNumber").is(accountNumber)
+                                .and("creationDate").gt(start).lt(end)
+                                .and("commission").gt(0)),
+                        Movement.class));
+    }
+
+    // ============================================
+    // FIND BY ACCOUNT NUMBERS (batch)
+    // ============================================
+    // One query per account on the (accountNumber, creationDate) index, newest first and
+    // limited on the server, so an account's older history is never read. A few run at
+    // once; the results keep account order, so each account arrives as a contiguous run.
+    @Override
+    public Flux<Movement> findByAccountNumbers(List<String> accountNumbers, Date from, Date to,
+                                               int limitPerAccount) {
+        return Flux.fromStream(accountNumbers.stream().distinct().sorted())
+                .flatMapSequential(accountNumber -> {
+                    Criteria criteria = Criteria.where("accountNumber").is(accountNumber);
+                    if (from != null || to != null) {
+                        criteria = criteria.and("creationDate");
+                        if (from != null) {
+                            criteria = criteria.gte(from);
+                        }
+                        if (to != null) {
+                            criteria = criteria.lt(to);
+                        }
+                    }
+                    Query query = Query.query(criteria)
+                            .with(Sort.by(Sort.Order.desc("creationDate")))
+                            .limit(limitPerAccount);
+                    return JfrTrace.flux(() -> new RepositoryCallEvent("findByAccountNumbers", accountNumber, null),
+                            reportMongoTemplate.find(query, Movement.class));
+                }, BATCH_CONCURRENCY);
+    }
+
+    // ============================================
+    // COUNT BY ACCOUNT NUMBER
+    // ============================================
+    @Override
+    public Mono<Long> countByAccountNumber(String accountNumber) {
+        hotAccountService.recordAccess(accountNumber);
+        return JfrTrace.mono(() -> new RepositoryCallEvent("countByAccountNumber", accountNumber, null),
+                movementRepository.countByAccountNumber(accountNumber));
     }
 
     // ============================================
@@ -51,10 +156,9 @@ public class MovementServiceImpl implements MovementService {
     // ============================================
     @Override
     public Mono<Movement> findByNumber(String number) {
-        return movementRepository
-                .findAll()
-                .filter(m -> number.equals(m.getMovementNumber()))
-                .next();
+        return singleFlight.mono("findByNumber", number, () -> JfrTrace.mono(
+                () -> new RepositoryCallEvent("findFirstByMovementNumber", null, null),
+                movementRepository.findFirstByMovementNumber(number)));
     }
 
     // ============================================
@@ -63,7 +167,15 @@ public class MovementServiceImpl implements MovementService {
     @Override
     public Mono<Movement> saveMovement(Movement movement) {
         movement.setStatus("active");
-        return movementRepository.save(movement);
+        // only new movements change the balance (updateCommission re-saves existing ones)
+        if (movement.getId() != null) {
+            return movementRepository.save(movement);
+        }
+        // the id is known before the insert, so the balance can mark it pending first
+        movement.setId(new ObjectId().toHexString());
+        return balanceService.markPending(movement)
+                .then(movementRepository.insert(movement))
+                .flatMap(saved -> balanceService.apply(saved).thenReturn(saved));
     }
 
     // ============================================
@@ -72,7 +184,8 @@ public class MovementServiceImpl implements MovementService {
     @Override
     public Mono<Movement> updateMovement(Movement dataMovement) {
 
-        return findByNumber(dataMovement.getMovementNumber())
+        // own read: never a coalesced (shared) instance on a write path
+        return movementRepository.findFirstByMovementNumber(dataMovement.getMovementNumber())
                 .switchIfEmpty(
                         Mono.error(new RuntimeException(
                                 "The movement " + dataMovement.getMovementNumber() + " does not exist"
@@ -98,12 +211,15 @@ public class MovementServiceImpl implements MovementService {
     @Override
     public Mono<Void> deleteMovement(String number) {
 
-        return findByNumber(number)
+        return movementRepository.findFirstByMovementNumber(number)
                 .switchIfEmpty(
                         Mono.error(new RuntimeException(
                                 "The movement number " + number + " does not exist"
                         ))
                 )
-                .flatMap(movementRepository::delete);
+                .flatMap(existing -> balanceService.markReverting(existing)
+                        .then(movementRepository.delete(existing))
+                        .then(balanceService.revert(existing))
+                        .then());
     }
 }
@@ -0,0 +1,474 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bootcamp.config.MongoReadRoutingConfig;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.ReconciliationReportDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import com.nttdata.bootcamp.kafka.TopicRangeReader;
+import com.nttdata.bootcamp.service.ReconciliationService;
+import com.nttdata.bootcamp.util.FingerprintTable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Daily ledger reconciliation: every source event (deposit, withdrawal, payment,
+ * charge, virtual coin) must have produced exactly one movement and one
+ * MovementCreated event, with the same amount.
+ * <p>
+ * The three sides are streamed concurrently (source topics and {@code topic_movement}
+ * by timestamp range, movements by creation date), reduced to 64-bit identity
+ * fingerprints and partitioned by account; each partition fills its own
+ * {@link FingerprintTable} on a parallel worker and is compared in place. Identities
+ * are only resolved back to text for a handful of samples, in a second pass that
+ * stops as soon as they are all found.
+ * <p>
+ * Events are consumed some time after being produced, so both ends of the day get a
+ * grace margin: margin occurrences only count for identities that also appear inside
+ * the day. Finished reports are kept for {@code movement.reconciliation.retention-minutes}.
+ */
+@Slf4j
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final List<String> TRACKED_TYPES =
+            Arrays.asList("DEPOSIT", "WITHDRAWAL", "PAYMENT", "CHARGE", "VIRTUAL_COIN");
+    private static final String VIRTUAL_COIN = "VIRTUAL_COIN";
+    private static final int PARTITION_PREFETCH = 1024;
+
+    private static final String MISSING = "missing";
+    private static final String DUPLICATE = "duplicate";
+    private static final String ORPHAN = "orphan";
+    private static final String AMOUNT_MISMATCH = "amountMismatch";
+    private static final String UNPUBLISHED = "unpublished";
+    private static final String EXTRA_PUBLISHED = "extraPublished";
+
+    private final ReactiveMongoTemplate reportMongoTemplate;
+    private final TopicRangeReader topicRangeReader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ReconciliationReportDto> jobs = new ConcurrentHashMap<>();
+
+    // same topics as the KafkaServiceImpl listeners
+    @Value("${topic.customer.name:topic_deposit}")
+    private String topicDeposit;
+
+    @Value("${topic.customer.name:topic_withdrawal}")
+    private String topicWithdrawal;
+
+    @Value("${topic.customer.name:topic_payment}")
+    private String topicPayment;
+
+    @Value("${topic.customer.name:topic_charge}")
+    private String topicCharge;
+
+    @Value("${topic.customer.name:topic_virtualCoin}")
+    private String topicVirtualCoin;
+
+    @Value("${topic.movement.name}")
+    private String topicMovement;
+
+    @Value("${movement.reconciliation.partitions:0}")
+    private int partitions;
+
+    @Value("${movement.reconciliation.grace-seconds:300}")
+    private long graceSeconds;
+
+    @Value("${movement.reconciliation.expected-per-partition:65536}")
+    private int expectedPerPartition;
+
+    @Value("${movement.reconciliation.samples:20}")
+    private int sampleSize;
+
+    @Value("${movement.reconciliation.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    public ReconciliationServiceImpl(
+            @Qualifier(MongoReadRoutingConfig.REPORT_TEMPLATE) ReactiveMongoTemplate reportMongoTemplate,
+            TopicRangeReader topicRangeReader,
+            ObjectMapper objectMapper) {
+        this.reportMongoTemplate = reportMongoTemplate;
+        this.topicRangeReader = topicRangeReader;
+        this.objectMapper = objectMapper;
+    }
+
+    // ============================================
+    // START
+    // ============================================
+    @Override
+    public Mono<ReconciliationReportDto> start(LocalDate day) {
+        ReconciliationReportDto job = new ReconciliationReportDto();
+        job.setId(UUID.randomUUID().toString());
+        job.setStatus(JobStatus.RUNNING);
+        job.setDay(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        job.setCreationDate(new Date());
+        jobs.put(job.getId(), job);
+
+        run(job, new Window(day)).subscribe(
+                v -> { },
+                e -> log.error("Reconciliation {} failed", job.getId(), e),
+                () -> log.info("✔ Conciliación {} terminada en {} ms: matched={} missing={} duplicates={} "
+                                + "orphans={} amountMismatches={} unpublished={}",
+                        day, job.getDurationMs(), job.getMatched(), job.getMissing(), job.getDuplicates(),
+                        job.getOrphans(), job.getAmountMismatches(), job.getUnpublished()));
+
+        return Mono.just(job);
+    }
+
+    @Override
+    public Mono<ReconciliationReportDto> findJob(String id) {
+        return Mono.justOrEmpty(jobs.get(id));
+    }
+
+    // yesterday, when movement.reconciliation.cron is set
+    @Scheduled(cron = "${movement.reconciliation.cron:-}")
+    public void scheduledReconciliation() {
+        start(LocalDate.now().minusDays(1)).subscribe();
+    }
+
+    // finished reports past the retention
+    @Scheduled(fixedDelayString = "${movement.reconciliation.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishDate() != null && job.getFinishDate().getTime() < cutoff);
+    }
+
+    private Mono<Void> run(ReconciliationReportDto job, Window window) {
+        long start = System.nanoTime();
+        int workers = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        AtomicLong unreadable = new AtomicLong();
+
+        return fingerprints(window, workers, unreadable)
+                .groupBy(f -> f.partition, PARTITION_PREFETCH)
+                .flatMap(partition -> partition
+                        .publishOn(Schedulers.parallel(), PARTITION_PREFETCH)
+                        .reduceWith(() -> new FingerprintTable(expectedPerPartition), (table, f) -> {
+                            table.add(f.key, f.side, f.cents, f.inWindow);
+                            return table;
+                        })
+                        .map(this::compare), workers)
+                .reduce(new Tally(sampleSize), Tally::merge)
+                .flatMap(tally -> resolve(window, workers, tally.sampleKeys())
+                        .doOnNext(identities -> {
+                            tally.fill(job, identities);
+                            job.setUnreadable(unreadable.get());
+                        }))
+                .doOnSuccess(v -> finish(job, start, null))
+                .doOnError(e -> finish(job, start, e))
+                .then();
+    }
+
+    private static void finish(ReconciliationReportDto job, long start, Throwable error) {
+        job.setDurationMs(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        job.setStatus(error == null ? JobStatus.COMPLETED : JobStatus.FAILED);
+        job.setError(error != null ? error.toString() : null);
+        job.setFinishDate(new Date());
+    }
+
+    // ============================================
+    // FINGERPRINTS
+    // ============================================
+    private Flux<Fingerprint> fingerprints(Window window, int workers, AtomicLong unreadable) {
+        Set<String> sourceTopics = new LinkedHashSet<>(
+                Arrays.asList(topicDeposit, topicWithdrawal, topicPayment, topicCharge, topicVirtualCoin));
+
+        Flux<Fingerprint> sources = Flux.fromIterable(sourceTopics)
+                .flatMap(topic -> topicRangeReader.read(topic, window.from.minus(window.grace), window.to)
+                        .<Fingerprint>handle((record, sink) -> {
+                            Fingerprint f = fromSource(record, window, workers, unreadable);
+                            if (f != null) {
+                                sink.next(f);
+                            }
+                        }), sourceTopics.size());
+
+        Flux<Fingerprint> published = topicRangeReader.read(topicMovement, window.from, window.to.plus(window.grace))
+                .<Fingerprint>handle((record, sink) -> {
+                    Fingerprint f = fromPublished(record, window, workers, unreadable);
+                    if (f != null) {
+                        sink.next(f);
+                    }
+                });
+
+        return Flux.merge(sources, movements(window, workers), published);
+    }
+
+    // event time in [from - grace, to)
+    private Fingerprint fromSource(ConsumerRecord<byte[], byte[]> record, Window window, int workers,
+                                   AtomicLong unreadable) {
+        JsonNode data = readData(record, unreadable);
+        if (data == null) {
+            return null;
+        }
+        String type;
+        String number;
+        String account = data.path("accountNumber").asText(null);
+        double amount = data.path("amount").asDouble();
+        if (data.hasNonNull("depositNumber")) {
+            type = "DEPOSIT";
+            number = data.get("depositNumber").asText();
+        } else if (data.hasNonNull("withdrawalNumber")) {
+            type = "WITHDRAWAL";
+            number = data.get("withdrawalNumber").asText();
+            amount = -amount;
+        } else if (data.hasNonNull("paymentNumber")) {
+            type = "PAYMENT";
+            number = data.get("paymentNumber").asText();
+        } else if (data.hasNonNull("chargeNumber")) {
+            type = "CHARGE";
+            number = data.get("chargeNumber").asText();
+            amount = -amount;
+        } else if (data.path("flagDebitCard").asBoolean(false)) {
+            // only debit-card virtual coin events produce a movement
+            type = VIRTUAL_COIN;
+            number = null;
+            account = data.path("numberAccount").asText(null);
+            amount = data.path("mount").asDouble();
+        } else {
+            return null;
+        }
+        return fingerprint(type, number, account, amount, FingerprintTable.SOURCE,
+                record.timestamp() >= window.from.toEpochMilli(), workers);
+    }
+
+    // creation date in [from, to + grace)
+    private Flux<Fingerprint> movements(Window window, int workers) {
+        Query query = Query.query(Criteria.where("creationDate")
+                        .gte(Date.from(window.from)).lt(Date.from(window.to.plus(window.grace)))
+                        .and("typeTransaction").in(TRACKED_TYPES));
+        query.fields().include("typeTransaction", "movementNumber", "accountNumber", "amount", "creationDate");
+
+        return reportMongoTemplate.find(query, Document.class, reportMongoTemplate.getCollectionName(Movement.class))
+                .map(doc -> {
+                    Number amount = doc.get("amount", Number.class);
+                    return fingerprint(doc.getString("typeTransaction"), doc.getString("movementNumber"),
+                            doc.getString("accountNumber"), amount != null ? amount.doubleValue() : 0d,
+                            FingerprintTable.MOVEMENT,
+                            doc.getDate("creationDate").toInstant().isBefore(window.to), workers);
+                });
+    }
+
+    // publish time in [from, to + grace)
+    private Fingerprint fromPublished(ConsumerRecord<byte[], byte[]> record, Window window, int workers,
+                                      AtomicLong unreadable) {
+        JsonNode data = readData(record, unreadable);
+        if (data == null) {
+            return null;
+        }
+        String type = data.path("typeTransaction").asText("");
+        if (!TRACKED_TYPES.contains(type)) {
+            return null;
+        }
+        return fingerprint(type, data.path("movementNumber").asText(null),
+                data.path("accountNumber").asText(null), data.path("amount").asDouble(),
+                FingerprintTable.PUBLISHED, record.timestamp() < window.to.toEpochMilli(), workers);
+    }
+
+    private JsonNode readData(ConsumerRecord<byte[], byte[]> record, AtomicLong unreadable) {
+        if (record.value() == null) {
+            return null;
+        }
+        try {
+            JsonNode data = objectMapper.readTree(record.value()).path("data");
+            return data.isObject() ? data : null;
+        } catch (IOException e) {
+            unreadable.incrementAndGet();
+            return null;
+        }
+    }
+
+    // virtual coin events carry no movement number (older movements got a random one):
+    // identified by account and amount
+    private static Fingerprint fingerprint(String type, String number, String account, double amount,
+                                           int side, boolean inWindow, int workers) {
+        long cents = Math.round(amount * 100);
+        String identity = VIRTUAL_COIN.equals(type)
+                ? type + '|' + account + '|' + cents
+                : type + '|' + number;
+        int partition = Math.floorMod(account != null ? account.hashCode() : 0, workers);
+        return new Fingerprint(identity, FingerprintTable.hash(identity), partition, side, cents, inWindow);
+    }
+
+    // ============================================
+    // COMPARE
+    // ============================================
+    private Tally compare(FingerprintTable table) {
+        Tally tally = new Tally(sampleSize);
+        table.forEach((key, sources, movements, published, sourceCents, movementCents, publishedCents) -> {
+            tally.sourceEvents += sources;
+            tally.movements += movements;
+            tally.publishedEvents += published;
+
+            tally.matched += Math.min(sources, movements);
+            if (movements < sources) {
+                tally.missing += sources - movements;
+                tally.sample(MISSING, key);
+            }
+            if (sources == 0 && movements > 0) {
+                tally.orphans += movements;
+                tally.sample(ORPHAN, key);
+            } else if (movements > sources) {
+                tally.duplicates += movements - sources;
+                tally.sample(DUPLICATE, key);
+            }
+            if ((sources == movements && sources > 0 && sourceCents != movementCents)
+                    || (published == movements && movements > 0 && publishedCents != movementCents)) {
+                tally.amountMismatches++;
+                tally.sample(AMOUNT_MISMATCH, key);
+            }
+            if (movements > published) {
+                tally.unpublished += movements - published;
+                tally.sample(UNPUBLISHED, key);
+            } else if (published > movements) {
+                tally.extraPublished += published - movements;
+                tally.sample(EXTRA_PUBLISHED, key);
+            }
+        });
+        return tally;
+    }
+
+    // second pass, only for the sampled fingerprints
+    private Mono<Map<Long, String>> resolve(Window window, int workers, Set<Long> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return fingerprints(window, workers, new AtomicLong())
+                .filter(f -> keys.contains(f.key))
+                .distinct(f -> f.key)
+                .take(keys.size())
+                .collectMap(f -> f.key, f -> f.identity);
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+    private final class Window {
+
+        private final Instant from;
+        private final Instant to;
+        private final Duration grace;
+
+        private Window(LocalDate day) {
+            this.from = day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            this.to = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            this.grace = Duration.ofSeconds(graceSeconds);
+        }
+    }
+
+    private static final class Fingerprint {
+
+        private final String identity;
+        private final long key;
+        private final int partition;
+        private final int side;
+        private final long cents;
+        private final boolean inWindow;
+
+        private Fingerprint(String identity, long key, int partition, int side, long cents, boolean inWindow) {
+            this.identity = identity;
+            this.key = key;
+            this.partition = partition;
+            this.side = side;
+            this.cents = cents;
+            this.inWindow = inWindow;
+        }
+    }
+
+    // counters of one or several partitions
+    private static final class Tally {
+
+        private long sourceEvents;
+        private long movements;
+        private long publishedEvents;
+        private long matched;
+        private long missing;
+        private long duplicates;
+        private long orphans;
+        private long amountMismatches;
+        private long unpublished;
+        private long extraPublished;
+        private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+        private final int sampleSize;
+
+        private Tally(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        private void sample(String category, long key) {
+            List<Long> keys = samples.computeIfAbsent(category, c -> new ArrayList<>());
+            if (keys.size() < sampleSize) {
+                keys.add(key);
+            }
+        }
+
+        private Tally merge(Tally other) {
+            sourceEvents += other.sourceEvents;
+            movements += other.movements;
+            publishedEvents += other.publishedEvents;
+            matched += other.matched;
+            missing += other.missing;
+            duplicates += other.duplicates;
+            orphans += other.orphans;
+            amountMismatches += other.amountMismatches;
+            unpublished += other.unpublished;
+            extraPublished += other.extraPublished;
+            other.samples.forEach((category, keys) -> {
+                keys.forEach(key -> sample(category, key));
+            });
+            return this;
+        }
+
+        private Set<Long> sampleKeys() {
+            return samples.values().stream().flatMap(List::stream).collect(Collectors.toCollection(HashSet::new));
+        }
+
+        private void fill(ReconciliationReportDto job, Map<Long, String> identities) {
+            job.setSourceEvents(sourceEvents);
+            job.setMovements(movements);
+            job.setPublishedEvents(publishedEvents);
+            job.setMatched(matched);
+            job.setMissing(missing);
+            job.setDuplicates(duplicates);
+            job.setOrphans(orphans);
+            job.setAmountMismatches(amountMismatches);
+            job.setUnpublished(unpublished);
+            job.setExtraPublished(extraPublished);
+            Map<String, List<String>> resolved = new LinkedHashMap<>();
+            samples.forEach((category, keys) -> resolved.put(category, keys.stream()
+                    .map(key -> identities.getOrDefault(key, Long.toHexString(key)))
+                    .collect(Collectors.toList())));
+            job.setSamples(resolved);
+        }
+    }
+}
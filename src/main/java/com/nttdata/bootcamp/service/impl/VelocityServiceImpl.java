@@ -0,0 +1,145 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.VelocityDto;
+import com.nttdata.bootcamp.service.VelocityService;
+import com.nttdata.bootcamp.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account sliding-window velocity, fed by the ingest and HTTP write paths of this
+ * instance. At most {@code movement.velocity.max-accounts} counters are kept; accounts
+ * idle for longer than the eviction period are dropped on a schedule, and new
+ * accounts are not tracked while the map is full ({@code movement.velocity.untracked}).
+ */
+@Slf4j
+@Service
+public class VelocityServiceImpl implements VelocityService {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final Map<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    // shared slot origin: a day back, so slightly older timestamps still land in a bucket
+    private final long originMillis = System.currentTimeMillis() - DAY_MILLIS;
+    private final Counter untracked;
+
+    @Value("${movement.velocity.max-accounts:20000}")
+    private int maxAccounts;
+
+    @Value("${movement.velocity.idle-eviction-minutes:1440}")
+    private long idleEvictionMinutes;
+
+    public VelocityServiceImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("movement.velocity.accounts", counters, Map::size)
+                .description("Accounts with an in-memory velocity window")
+                .register(meterRegistry);
+        this.untracked = Counter.builder("movement.velocity.untracked")
+                .description("Movements not tracked because the velocity map was full")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // RECORD
+    // ============================================
+    @Override
+    public void record(Movement movement) {
+        String accountNumber = movement.getAccountNumber();
+        if (accountNumber == null) {
+            return;
+        }
+        SlidingWindowCounter counter = counters.get(accountNumber);
+        if (counter == null) {
+            if (counters.size() >= maxAccounts) {
+                untracked.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(accountNumber, a -> new SlidingWindowCounter(originMillis));
+        }
+        // at its creation date, the same time a replay of it would use
+        long at = movement.getCreationDate() != null
+                ? movement.getCreationDate().getTime()
+                : System.currentTimeMillis();
+        double amount = movement.getAmount() != null ? movement.getAmount() : 0d;
+        counter.record(at, Math.round(amount * 100));
+    }
+
+    @Override
+    public void replay(String accountNumber, List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        SlidingWindowCounter counter = counters.get(accountNumber);
+        if (counter == null) {
+            if (counters.size() >= maxAccounts) {
+                return;
+            }
+            counter = counters.computeIfAbsent(accountNumber, a -> new SlidingWindowCounter(originMillis));
+        }
+        // live movements may have started the window meanwhile: only the stored ones
+        // older than its first movement are missing, the rest are already counted
+        synchronized (counter) {
+            long firstRecord = counter.getFirstRecordMillis();
+            for (Movement movement : movements) {
+                if (movement.getCreationDate() != null && movement.getCreationDate().getTime() < firstRecord) {
+                    double amount = movement.getAmount() != null ? movement.getAmount() : 0d;
+                    counter.record(movement.getCreationDate().getTime(), Math.round(amount * 100));
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // FIND
+    // ============================================
+    @Override
+    public Mono<VelocityDto> findVelocity(String accountNumber) {
+        return Mono.fromSupplier(() -> toDto(accountNumber, counters.get(accountNumber), System.currentTimeMillis()));
+    }
+
+    private static VelocityDto toDto(String accountNumber, SlidingWindowCounter counter, long now) {
+        VelocityDto dto = new VelocityDto();
+        dto.setAccountNumber(accountNumber);
+        dto.setAsOf(new Date(now));
+        if (counter == null) {
+            dto.setLastMinuteVolume(0d);
+            dto.setLastHourVolume(0d);
+            dto.setLastDayVolume(0d);
+            return dto;
+        }
+        dto.setLastMinuteCount(counter.count(now, SlidingWindowCounter.MINUTE));
+        dto.setLastMinuteVolume(counter.volumeCents(now, SlidingWindowCounter.MINUTE) / 100d);
+        dto.setLastHourCount(counter.count(now, SlidingWindowCounter.HOUR));
+        dto.setLastHourVolume(counter.volumeCents(now, SlidingWindowCounter.HOUR) / 100d);
+        dto.setLastDayCount(counter.count(now, SlidingWindowCounter.DAY));
+        dto.setLastDayVolume(counter.volumeCents(now, SlidingWindowCounter.DAY) / 100d);
+        dto.setTrackedSince(new Date(counter.getFirstRecordMillis()));
+        return dto;
+    }
+
+    // ============================================
+    // EVICTION
+    // ============================================
+    @Scheduled(fixedDelayString = "${movement.velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+        int before = counters.size();
+        counters.values().removeIf(counter -> counter.getLastUpdateMillis() < cutoff);
+        int evicted = before - counters.size();
+        if (evicted > 0) {
+            log.info("Velocity windows evicted: {}", evicted);
+        }
+    }
+}
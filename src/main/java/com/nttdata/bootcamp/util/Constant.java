@@ -8,4 +8,20 @@ public class Constant {
     public static final Long COUNT_TRANSACTIONS = 2l;
     public static final Double COMMISSION_TRANSACTIONS = 4.50;
 
+    public static final String KAFKA_GROUP_ID = "grupo1";
+    // one consumer group per listener: resizing one container only rebalances its own group
+    public static final String KAFKA_GROUP_DEPOSIT = KAFKA_GROUP_ID + "-deposit";
+    public static final String KAFKA_GROUP_WITHDRAWAL = KAFKA_GROUP_ID + "-withdrawal";
+    public static final String KAFKA_GROUP_PAYMENT = KAFKA_GROUP_ID + "-payment";
+    public static final String KAFKA_GROUP_CHARGE = KAFKA_GROUP_ID + "-charge";
+    public static final String KAFKA_GROUP_VIRTUAL_COIN = KAFKA_GROUP_ID + "-virtual-coin";
+    public static final String LISTENER_DEPOSIT = "movement-deposit";
+    public static final String LISTENER_WITHDRAWAL = "movement-withdrawal";
+    public static final String LISTENER_PAYMENT = "movement-payment";
+    public static final String LISTENER_CHARGE = "movement-charge";
+    public static final String LISTENER_VIRTUAL_COIN = "movement-virtual-coin";
+
+    public static final String METRIC_MONGO_SAVE = "movement.mongo.save";
+    public static final String METRIC_KAFKA_PROCESSED = "movement.kafka.records.processed";
+
 }
@@ -0,0 +1,126 @@
+package com.nttdata.bootcamp.util;
+
+/**
+ * Open-addressing table of 64-bit identity fingerprints used by the ledger
+ * reconciliation. Each slot keeps, per side (source event, movement, published
+ * event), an occurrence count and the sum of amounts in cents, plus whether any
+ * occurrence fell inside the reconciled window; no document is retained, so a
+ * day of traffic fits in a few primitive arrays. Not thread-safe: one table per
+ * partition, filled by a single worker.
+ */
+public class FingerprintTable {
+
+    public static final int SOURCE = 0;
+    public static final int MOVEMENT = 1;
+    public static final int PUBLISHED = 2;
+
+    private static final int SIDES = 3;
+    private static final long EMPTY = 0L;
+    private static final float MAX_LOAD = 0.7f;
+
+    private long[] keys;
+    private int[] counts;
+    private long[] cents;
+    private boolean[] inWindow;
+    private int mask;
+    private int size;
+
+    public FingerprintTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public void add(long key, int side, long amountCents, boolean window) {
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize();
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot * SIDES + side]++;
+        cents[slot * SIDES + side] += amountCents;
+        inWindow[slot] |= window;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visits every fingerprint with at least one occurrence inside the window;
+     * the others only belong to the neighbouring days' margins.
+     */
+    public void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && inWindow[slot]) {
+                int base = slot * SIDES;
+                visitor.visit(keys[slot],
+                        counts[base + SOURCE], counts[base + MOVEMENT], counts[base + PUBLISHED],
+                        cents[base + SOURCE], cents[base + MOVEMENT], cents[base + PUBLISHED]);
+            }
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the murmur3 finalizer; never returns the empty marker.
+     */
+    public static long hash(CharSequence identity) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < identity.length(); i++) {
+            h ^= identity.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1L : h;
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private int slotOf(long key) {
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity * SIDES];
+        cents = new long[capacity * SIDES];
+        inWindow = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldCents = cents;
+        boolean[] oldInWindow = inWindow;
+        allocate(oldKeys.length << 1);
+
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] == EMPTY) {
+                continue;
+            }
+            int slot = slotOf(oldKeys[old]);
+            keys[slot] = oldKeys[old];
+            System.arraycopy(oldCounts, old * SIDES, counts, slot * SIDES, SIDES);
+            System.arraycopy(oldCents, old * SIDES, cents, slot * SIDES, SIDES);
+            inWindow[slot] = oldInWindow[old];
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int sources, int movements, int published,
+                   long sourceCents, long movementCents, long publishedCents);
+    }
+}
@@ -0,0 +1,107 @@
+package com.nttdata.bootcamp.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Line-oriented gzip writer straight onto a {@link FileChannel}: rows are staged in a
+ * direct buffer, deflated into a second direct buffer and written to the channel, so
+ * memory stays at two fixed buffers whatever the file size. Not thread-safe.
+ */
+public class GzipChannelWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private long uncompressedBytes;
+    private long rows;
+
+    public GzipChannelWriter(Path file, int compressionLevel) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.deflater = new Deflater(compressionLevel, true);
+        write(ByteBuffer.wrap(GZIP_HEADER));
+    }
+
+    public void writeLine(String line) throws IOException {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!input.hasRemaining()) {
+                deflateInput();
+            }
+            int length = Math.min(input.remaining(), bytes.length - offset);
+            input.put(bytes, offset, length);
+            offset += length;
+        }
+        uncompressedBytes += bytes.length;
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            deflateInput();
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflater.deflate(output);
+                drainOutput();
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) crc.getValue());
+            trailer.putInt((int) uncompressedBytes);
+            trailer.flip();
+            write(trailer);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private void deflateInput() throws IOException {
+        input.flip();
+        crc.update(input.duplicate());
+        deflater.setInput(input);
+        while (!deflater.needsInput()) {
+            deflater.deflate(output);
+            drainOutput();
+        }
+        // the deflater keeps a reference to its input: detach before reusing the buffer
+        deflater.setInput(EMPTY);
+        input.clear();
+    }
+
+    private void drainOutput() throws IOException {
+        output.flip();
+        write(output);
+        output.clear();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
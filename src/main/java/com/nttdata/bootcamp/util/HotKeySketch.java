@@ -0,0 +1,123 @@
+package com.nttdata.bootcamp.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate access frequency of an unbounded key space (account numbers) in a fixed
+ * amount of memory: a count-min sketch ({@code depth} rows of {@code width} counters,
+ * conservative update) plus the {@code k} keys with the highest estimates. Estimates
+ * never undercount; {@link #decay()} halves every counter so old traffic fades out.
+ * Methods are synchronized: one short critical section per access.
+ */
+public class HotKeySketch {
+
+    private final int depth;
+    private final int mask;
+    private final long[][] counters;
+    private final int k;
+
+    // top-k candidates and the smallest of them, recomputed only when it changes
+    private final Map<String, Long> top = new HashMap<>();
+    private String minKey;
+    private long minCount;
+
+    // width: rounded up to a power of two
+    public HotKeySketch(int depth, int width, int k) {
+        int capacity = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.depth = depth;
+        this.mask = capacity - 1;
+        this.counters = new long[depth][capacity];
+        this.k = k;
+    }
+
+    public synchronized long add(String key, long count) {
+        long hash = FingerprintTable.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1, h2, row)]);
+        }
+        long updated = estimate + count;
+        // conservative update: only counters below the new estimate grow
+        for (int row = 0; row < depth; row++) {
+            int i = index(h1, h2, row);
+            counters[row][i] = Math.max(counters[row][i], updated);
+        }
+        offer(key, updated);
+        return updated;
+    }
+
+    public synchronized long estimate(String key) {
+        long hash = FingerprintTable.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1, h2, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Keys with the highest estimates, hottest first.
+     */
+    public synchronized List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(top.size());
+        top.forEach((key, count) -> entries.add(Map.entry(key, count)));
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries;
+    }
+
+    public synchronized void decay() {
+        for (long[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        top.replaceAll((key, count) -> count >>> 1);
+        top.values().removeIf(count -> count == 0);
+        recomputeMin();
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private int index(int h1, int h2, int row) {
+        return (h1 + row * h2) & mask;
+    }
+
+    private void offer(String key, long count) {
+        if (top.containsKey(key)) {
+            top.put(key, count);
+            if (key.equals(minKey)) {
+                recomputeMin();
+            }
+        } else if (top.size() < k) {
+            top.put(key, count);
+            if (minKey == null || count < minCount) {
+                minKey = key;
+                minCount = count;
+            }
+        } else if (count > minCount) {
+            top.remove(minKey);
+            top.put(key, count);
+            recomputeMin();
+        }
+    }
+
+    private void recomputeMin() {
+        minKey = null;
+        minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> e : top.entrySet()) {
+            if (e.getValue() < minCount) {
+                minKey = e.getKey();
+                minCount = e.getValue();
+            }
+        }
+    }
+}
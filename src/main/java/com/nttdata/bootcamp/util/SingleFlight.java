@@ -0,0 +1,120 @@
+package com.nttdata.bootcamp.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Subscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing: while a read for a key is in flight, identical reads subscribe
+ * to it instead of issuing their own query, and every subscriber gets the same
+ * result. The key is released as soon as the query terminates, so nothing is cached
+ * beyond the in-flight window. Subscribers share the emitted instances: read-only.
+ * <p>
+ * A {@link Flux} read is only joinable until its first element: it is multicast
+ * without replay, so a history is never buffered for late callers, who run their own
+ * query instead. A subscriber that cancels leaves the others running; the query is
+ * cancelled when the last one leaves.
+ * <p>
+ * {@code movement.singleflight.calls{operation,outcome=leader|coalesced}}: the
+ * coalescing ratio is coalesced / (leader + coalesced).
+ */
+public class SingleFlight {
+
+    public static final String METRIC_CALLS = "movement.singleflight.calls";
+
+    private final Map<String, Object> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("movement.singleflight.in-flight", inFlight, Map::size)
+                .description("Reads currently shared by coalesced callers")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> mono(String operation, String key, Supplier<Mono<T>> query) {
+        return Mono.defer(() -> {
+            String flightKey = operation + ':' + key;
+            Mono<T>[] created = new Mono[1];
+            Object shared = inFlight.computeIfAbsent(flightKey, k -> created[0] = query.get()
+                    .doFinally(signal -> inFlight.remove(k, created[0]))
+                    .share());
+            count(operation, created[0] != null);
+            return (Mono<T>) shared;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> flux(String operation, String key, Supplier<Flux<T>> query) {
+        return Flux.from(subscriber -> {
+            String flightKey = operation + ':' + key;
+            FluxFlight<T>[] created = new FluxFlight[1];
+            FluxFlight<T> flight = (FluxFlight<T>) inFlight.computeIfAbsent(flightKey,
+                    k -> created[0] = new FluxFlight<>(k, query));
+            if (flight.join(subscriber)) {
+                count(operation, created[0] != null);
+            } else {
+                // already emitting: joining now would miss elements
+                count(operation, true);
+                Flux.defer(query).subscribe(subscriber);
+            }
+        });
+    }
+
+    /**
+     * One shared {@link Flux} query. Callers join under the lock the first element
+     * takes to close the flight, so a joined caller never misses an element.
+     */
+    private final class FluxFlight<T> {
+
+        private final String key;
+        private final Flux<T> shared;
+        private volatile boolean closed;
+
+        FluxFlight(String key, Supplier<Flux<T>> query) {
+            this.key = key;
+            this.shared = Flux.defer(query)
+                    .doOnNext(item -> close())
+                    .doFinally(signal -> close())
+                    .publish()
+                    .refCount();
+        }
+
+        synchronized boolean join(Subscriber<? super T> subscriber) {
+            if (closed) {
+                return false;
+            }
+            shared.subscribe(subscriber);
+            return true;
+        }
+
+        private void close() {
+            if (!closed) {
+                synchronized (this) {
+                    closed = true;
+                    inFlight.remove(key, this);
+                }
+            }
+        }
+    }
+
+    private void count(String operation, boolean leader) {
+        String outcome = leader ? "leader" : "coalesced";
+        counters.computeIfAbsent(operation + ':' + outcome, k -> Counter.builder(METRIC_CALLS)
+                        .description("Reads that ran a query (leader) or joined one in flight (coalesced)")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,102 @@
+package com.nttdata.bootcamp.util;
+
+import java.util.Arrays;
+
+/**
+ * Movement count and volume of one account over the last minute, hour and day.
+ * Three ring buffers of primitive arrays (60 x 1 s, 60 x 1 min, 24 x 1 h); each
+ * bucket remembers which time slot it holds, so stale buckets are reset on write
+ * and skipped on read, with no background work. About 2 KB per account.
+ * Methods are synchronized: one writer per movement, uncontended in practice.
+ */
+public class SlidingWindowCounter {
+
+    public static final int MINUTE = 0;
+    public static final int HOUR = 1;
+    public static final int DAY = 2;
+
+    private static final long[] BUCKET_MILLIS = {1_000L, 60_000L, 3_600_000L};
+    private static final int[] BUCKETS = {60, 60, 24};
+
+    // slot numbers are relative to this origin so they fit in an int
+    private final long originMillis;
+    private final int[][] slots = new int[BUCKETS.length][];
+    private final int[][] counts = new int[BUCKETS.length][];
+    private final long[][] cents = new long[BUCKETS.length][];
+
+    private long firstRecordMillis = Long.MAX_VALUE;
+    private long lastUpdateMillis;
+
+    // origin: shared by all counters, at least a day before the oldest recorded movement
+    public SlidingWindowCounter(long originMillis) {
+        this.originMillis = originMillis;
+        for (int w = 0; w < BUCKETS.length; w++) {
+            slots[w] = new int[BUCKETS[w]];
+            counts[w] = new int[BUCKETS[w]];
+            cents[w] = new long[BUCKETS[w]];
+            Arrays.fill(slots[w], -1);
+        }
+        this.lastUpdateMillis = originMillis;
+    }
+
+    public synchronized void record(long nowMillis, long amountCents) {
+        for (int w = 0; w < BUCKETS.length; w++) {
+            int slot = slot(nowMillis, w);
+            int bucket = slot % BUCKETS[w];
+            if (slots[w][bucket] > slot) {
+                // older than the window this bucket already covers
+                continue;
+            }
+            if (slots[w][bucket] != slot) {
+                slots[w][bucket] = slot;
+                counts[w][bucket] = 0;
+                cents[w][bucket] = 0;
+            }
+            counts[w][bucket]++;
+            cents[w][bucket] += Math.abs(amountCents);
+        }
+        firstRecordMillis = Math.min(firstRecordMillis, nowMillis);
+        lastUpdateMillis = Math.max(lastUpdateMillis, nowMillis);
+    }
+
+    public synchronized long count(long nowMillis, int window) {
+        int current = slot(nowMillis, window);
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS[window]; bucket++) {
+            if (inWindow(slots[window][bucket], current, window)) {
+                total += counts[window][bucket];
+            }
+        }
+        return total;
+    }
+
+    public synchronized long volumeCents(long nowMillis, int window) {
+        int current = slot(nowMillis, window);
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS[window]; bucket++) {
+            if (inWindow(slots[window][bucket], current, window)) {
+                total += cents[window][bucket];
+            }
+        }
+        return total;
+    }
+
+    public synchronized long getLastUpdateMillis() {
+        return lastUpdateMillis;
+    }
+
+    public synchronized long getFirstRecordMillis() {
+        return firstRecordMillis;
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private int slot(long nowMillis, int window) {
+        return (int) (Math.max(0, nowMillis - originMillis) / BUCKET_MILLIS[window]);
+    }
+
+    private static boolean inWindow(int slot, int current, int window) {
+        return slot >= 0 && slot <= current && slot > current - BUCKETS[window];
+    }
+}
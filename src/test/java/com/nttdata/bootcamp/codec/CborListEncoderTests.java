@@ -0,0 +1,72 @@
+package com.nttdata.bootcamp.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.nttdata.bootcamp.entity.dto.MovementDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CborListEncoderTests {
+
+    private static final ResolvableType DTO_TYPE = ResolvableType.forClass(MovementDto.class);
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final CborListEncoder encoder = new CborListEncoder(cborMapper);
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void fluxIsWrittenAsOneArray() throws IOException {
+        List<MovementDto> movements = Arrays.asList(
+                new MovementDto("1", "001", "M1", 1.0), new MovementDto("2", "002", "M2", 2.0));
+
+        Flux<DataBuffer> encoded = encoder.encode(Flux.fromIterable(movements), bufferFactory, DTO_TYPE,
+                MediaType.APPLICATION_CBOR, Collections.emptyMap());
+
+        List<MovementDto> decoded = cborMapper.readValue(bytes(DataBufferUtils.join(encoded).block()),
+                new TypeReference<List<MovementDto>>() {
+                });
+        assertEquals(movements, decoded);
+    }
+
+    @Test
+    void emptyFluxIsAnEmptyArray() throws IOException {
+        Flux<DataBuffer> encoded = encoder.encode(Flux.empty(), bufferFactory, DTO_TYPE,
+                MediaType.APPLICATION_CBOR, Collections.emptyMap());
+
+        List<MovementDto> decoded = cborMapper.readValue(bytes(DataBufferUtils.join(encoded).block()),
+                new TypeReference<List<MovementDto>>() {
+                });
+        assertEquals(Collections.emptyList(), decoded);
+    }
+
+    @Test
+    void monoIsWrittenAsOneValue() throws IOException {
+        MovementDto movement = new MovementDto("1", "001", "M1", 1.0);
+
+        Flux<DataBuffer> encoded = encoder.encode(Mono.just(movement), bufferFactory, DTO_TYPE,
+                MediaType.APPLICATION_CBOR, Collections.emptyMap());
+
+        assertEquals(movement, cborMapper.readValue(bytes(DataBufferUtils.join(encoded).block()), MovementDto.class));
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nttdata.bootcamp.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bootcamp.entity.dto.MovementDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSelectingEncoderTests {
+
+    private static final ResolvableType DTO_TYPE = ResolvableType.forClass(MovementDto.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FieldSelectingEncoder encoder = new FieldSelectingEncoder(new Jackson2JsonEncoder(mapper));
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void parsesTrimmedDistinctFieldsInOrder() {
+        Set<String> fields = FieldSelection.parse(
+                MockServerHttpRequest.get("/report?fields= amount, accountNumber,,amount").build());
+
+        assertEquals(Arrays.asList("amount", "accountNumber"), Arrays.asList(fields.toArray()));
+    }
+
+    @Test
+    void missingOrBlankParameterSelectsEverything() {
+        assertTrue(FieldSelection.parse(MockServerHttpRequest.get("/report").build()).isEmpty());
+        assertTrue(FieldSelection.parse(MockServerHttpRequest.get("/report?fields=").build()).isEmpty());
+        assertTrue(FieldSelection.fromHints(null).isEmpty());
+    }
+
+    @Test
+    void hintsCarryTheSelectionOnlyWhenPresent() {
+        Map<String, Object> selected = encoder.getEncodeHints(DTO_TYPE, DTO_TYPE, MediaType.APPLICATION_JSON,
+                MockServerHttpRequest.get("/report?fields=amount").build(), new MockServerHttpResponse());
+        Map<String, Object> all = encoder.getEncodeHints(DTO_TYPE, DTO_TYPE, MediaType.APPLICATION_JSON,
+                MockServerHttpRequest.get("/report").build(), new MockServerHttpResponse());
+
+        assertEquals(Collections.singleton("amount"), FieldSelection.fromHints(selected));
+        assertFalse(all.containsKey(FieldSelection.HINT));
+    }
+
+    @Test
+    void keepsOnlySelectedPropertiesOfEachElement() {
+        Flux<DataBuffer> encoded = encoder.encode(
+                Flux.just(new MovementDto("1", "001", "M1", 1.0), new MovementDto("2", "002", "M2", 2.0)),
+                bufferFactory, DTO_TYPE, MediaType.APPLICATION_JSON, hints("accountNumber", "amount"));
+
+        assertEquals("[{\"accountNumber\":\"001\",\"amount\":1.0},{\"accountNumber\":\"002\",\"amount\":2.0}]",
+                text(DataBufferUtils.join(encoded).block()));
+    }
+
+    @Test
+    void appliesTheSelectionToArrayValues() {
+        DataBuffer buffer = encoder.encodeValue(
+                Arrays.asList(new MovementDto("1", "001", "M1", 1.0), new MovementDto("2", "002", "M2", 2.0)),
+                bufferFactory, ResolvableType.forClass(Object.class), MediaType.APPLICATION_JSON,
+                hints("movementNumber"));
+
+        assertEquals("[{\"movementNumber\":\"M1\"},{\"movementNumber\":\"M2\"}]", text(buffer));
+    }
+
+    @Test
+    void withoutSelectionDelegatesUnchanged() {
+        DataBuffer buffer = encoder.encodeValue(new MovementDto("1", "001", "M1", 1.0),
+                bufferFactory, DTO_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap());
+
+        assertEquals("{\"dni\":\"1\",\"accountNumber\":\"001\",\"movementNumber\":\"M1\",\"amount\":1.0}",
+                text(buffer));
+    }
+
+    private static Map<String, Object> hints(String... fields) {
+        return Collections.singletonMap(FieldSelection.HINT, new LinkedHashSet<>(Arrays.asList(fields)));
+    }
+
+    private static String text(DataBuffer buffer) {
+        String text = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return text;
+    }
+}
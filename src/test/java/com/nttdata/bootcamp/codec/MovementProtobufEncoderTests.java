@@ -0,0 +1,152 @@
+package com.nttdata.bootcamp.codec;
+
+import com.google.protobuf.CodedInputStream;
+import com.nttdata.bootcamp.entity.dto.MovementDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.NotAcceptableStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovementProtobufEncoderTests {
+
+    private final MovementProtobufEncoder encoder = new MovementProtobufEncoder();
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void acceptsMovementsAndTheirCollectionsOnly() {
+        MediaType protobuf = MovementProtobufEncoder.PROTOBUF;
+
+        assertTrue(encoder.canEncode(ResolvableType.forClass(MovementDto.class), protobuf));
+        assertTrue(encoder.canEncode(ResolvableType.forClassWithGenerics(List.class, MovementDto.class), protobuf));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(String.class), protobuf));
+        assertFalse(encoder.canEncode(ResolvableType.forClassWithGenerics(List.class, String.class), protobuf));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(Map.class), protobuf));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(MovementDto.class), MediaType.ALL));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(MovementDto.class), MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void singleValueIsOneMessage() throws IOException {
+        DataBuffer buffer = encoder.encodeValue(new MovementDto("12345678", "001", "M1", 25.5),
+                bufferFactory, ResolvableType.forClass(MovementDto.class), MovementProtobufEncoder.PROTOBUF,
+                Collections.emptyMap());
+
+        Map<Integer, Object> fields = readMessage(CodedInputStream.newInstance(bytes(buffer)));
+
+        assertEquals("12345678", fields.get(1));
+        assertEquals("001", fields.get(2));
+        assertEquals("M1", fields.get(3));
+        assertEquals(25.5, fields.get(4));
+    }
+
+    @Test
+    void fluxIsAStreamOfDelimitedMessages() throws IOException {
+        Flux<DataBuffer> encoded = encoder.encode(
+                Flux.just(new MovementDto("1", "001", "M1", 1.0), new MovementDto("2", "002", "M2", 2.0)),
+                bufferFactory, ResolvableType.forClass(MovementDto.class), MovementProtobufEncoder.PROTOBUF,
+                Collections.emptyMap());
+
+        CodedInputStream in = CodedInputStream.newInstance(bytes(DataBufferUtils.join(encoded).block()));
+
+        assertEquals("M1", readDelimited(in).get(3));
+        assertEquals("M2", readDelimited(in).get(3));
+        assertTrue(in.isAtEnd());
+    }
+
+    @Test
+    void collectionValueIsAStreamOfDelimitedMessages() throws IOException {
+        DataBuffer buffer = encoder.encodeValue(
+                Arrays.asList(new MovementDto("1", "001", "M1", 1.0), new MovementDto("2", "002", "M2", 2.0)),
+                bufferFactory, ResolvableType.forClassWithGenerics(List.class, MovementDto.class),
+                MovementProtobufEncoder.PROTOBUF, Collections.emptyMap());
+
+        CodedInputStream in = CodedInputStream.newInstance(bytes(buffer));
+
+        assertEquals("M1", readDelimited(in).get(3));
+        assertEquals("M2", readDelimited(in).get(3));
+        assertTrue(in.isAtEnd());
+    }
+
+    @Test
+    void writesOnlySelectedFields() throws IOException {
+        Map<String, Object> hints = Collections.singletonMap(FieldSelection.HINT,
+                new LinkedHashSet<>(Arrays.asList("accountNumber", "amount")));
+
+        DataBuffer buffer = encoder.encodeValue(new MovementDto("12345678", "001", "M1", 25.5),
+                bufferFactory, ResolvableType.forClass(MovementDto.class), MovementProtobufEncoder.PROTOBUF, hints);
+
+        Map<Integer, Object> fields = readMessage(CodedInputStream.newInstance(bytes(buffer)));
+
+        assertEquals(2, fields.size());
+        assertEquals("001", fields.get(2));
+        assertEquals(25.5, fields.get(4));
+    }
+
+    @Test
+    void undeclaredValueWithoutSchemaIsNotAcceptable() {
+        assertThrows(NotAcceptableStatusException.class, () -> encoder.encodeValue(
+                Collections.singletonMap("status", "UP"), bufferFactory, ResolvableType.forClass(Object.class),
+                MovementProtobufEncoder.PROTOBUF, Collections.emptyMap()));
+
+        StepVerifier.create(encoder.encode(Mono.just("UP"), bufferFactory, ResolvableType.forClass(Object.class),
+                        MovementProtobufEncoder.PROTOBUF, Collections.emptyMap()))
+                .expectError(NotAcceptableStatusException.class)
+                .verify();
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private static Map<Integer, Object> readDelimited(CodedInputStream in) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        Map<Integer, Object> fields = readMessage(in);
+        in.popLimit(limit);
+        return fields;
+    }
+
+    // field number -> value; strings (wire type 2), doubles (1) and int64 (0)
+    private static Map<Integer, Object> readMessage(CodedInputStream in) throws IOException {
+        Map<Integer, Object> fields = new HashMap<>();
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            int number = tag >>> 3;
+            switch (tag & 7) {
+                case 0:
+                    fields.put(number, in.readInt64());
+                    break;
+                case 1:
+                    fields.put(number, in.readDouble());
+                    break;
+                default:
+                    fields.put(number, in.readString());
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,100 @@
+package com.nttdata.bootcamp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bootcamp.codec.FieldSelectingSmileEncoder;
+import com.nttdata.bootcamp.codec.MovementProtobufEncoder;
+import com.nttdata.bootcamp.entity.dto.MovementDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Map;
+
+class CodecConfigTests {
+
+    private final WebTestClient client = client();
+
+    @Test
+    void wildcardAcceptResolvesToJson() {
+        client.get().uri("/movements").accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void explicitAcceptSelectsProtobuf() {
+        client.get().uri("/movements").accept(MovementProtobufEncoder.PROTOBUF)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MovementProtobufEncoder.PROTOBUF);
+    }
+
+    @Test
+    void explicitAcceptSelectsCborAndSmile() {
+        client.get().uri("/movements").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR);
+        client.get().uri("/movements").accept(FieldSelectingSmileEncoder.SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(FieldSelectingSmileEncoder.SMILE);
+    }
+
+    @Test
+    void fieldsApplyToJson() {
+        client.get().uri("/movements?fields=movementNumber").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{\"movementNumber\":\"M1\"}]", true);
+    }
+
+    @Test
+    void protobufForATypedNonMovementBodyIsNotAcceptable() {
+        client.get().uri("/status").accept(MovementProtobufEncoder.PROTOBUF)
+                .exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    @Test
+    void protobufForAnUndeclaredNonMovementBodyIsNotAcceptable() {
+        client.get().uri("/anything").accept(MovementProtobufEncoder.PROTOBUF)
+                .exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    private static WebTestClient client() {
+        CodecCustomizer customizer = new CodecConfig()
+                .compactCodecsCustomizer(new ObjectMapper(), Jackson2ObjectMapperBuilder.json());
+        return WebTestClient.bindToController(new TestController())
+                .httpMessageCodecs(customizer::customize)
+                .build();
+    }
+
+    @RestController
+    static class TestController {
+
+        @GetMapping("/movements")
+        Flux<MovementDto> movements() {
+            return Flux.just(new MovementDto("1", "001", "M1", 1.0));
+        }
+
+        @GetMapping("/status")
+        Mono<Map<String, String>> status() {
+            return Mono.just(Collections.singletonMap("status", "UP"));
+        }
+
+        @GetMapping("/anything")
+        Mono<Object> anything() {
+            return Mono.just(Collections.singletonMap("status", "UP"));
+        }
+    }
+}
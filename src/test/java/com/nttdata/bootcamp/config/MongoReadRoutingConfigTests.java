@@ -0,0 +1,34 @@
+package com.nttdata.bootcamp.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MongoReadRoutingConfigTests {
+
+    @Test
+    void secondaryModesCarryMaxStaleness() {
+        ReadPreference preference = MongoReadRoutingConfig.readPreference("secondaryPreferred", 90);
+
+        assertEquals(ReadPreference.secondaryPreferred().getName(), preference.getName());
+        assertEquals(90L, ((TaggableReadPreference) preference).getMaxStaleness(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void primaryIgnoresMaxStaleness() {
+        assertEquals(ReadPreference.primary(), MongoReadRoutingConfig.readPreference("primary", 90));
+    }
+
+    @Test
+    void zeroMaxStalenessMeansUnbounded() {
+        ReadPreference preference = MongoReadRoutingConfig.readPreference("nearest", 0);
+
+        assertEquals(ReadPreference.nearest().getName(), preference.getName());
+        assertNull(((TaggableReadPreference) preference).getMaxStaleness(TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,182 @@
+package com.nttdata.bootcamp.config;
+
+import com.nttdata.bootcamp.entity.MigrationCheckpoint;
+import com.nttdata.bootcamp.entity.Movement;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovementStorageMigrationTests {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private MovementStorage movementStorage;
+    private KafkaListenerEndpointRegistry registry;
+    private MovementStorageMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        ReactiveIndexOperations indexOps = mock(ReactiveIndexOperations.class);
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.just("creationDate"));
+        when(mongoTemplate.indexOps(MovementStorage.STANDARD_COLLECTION)).thenReturn(indexOps);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.insert(anyCollection(), eq(MovementStorage.TIMESERIES_COLLECTION)))
+                .thenAnswer(i -> Flux.fromIterable(i.<Collection<Object>>getArgument(0)));
+        movementStorage = mock(MovementStorage.class);
+        registry = mock(KafkaListenerEndpointRegistry.class);
+        migration = new MovementStorageMigration(mongoTemplate, movementStorage,
+                new DefaultApplicationArguments("--migrate-movements"), provider(registry));
+        ReflectionTestUtils.setField(migration, "batchSize", 2);
+        ReflectionTestUtils.setField(migration, "listenerAutoStartup", true);
+    }
+
+    @Test
+    void nonEmptyTargetOnlyGetsTheMissingMovements() {
+        when(mongoTemplate.findById(any(), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.empty(), Mono.just(new MigrationCheckpoint("movement_ts", new Date(2000), 1L, false, new Date())));
+        when(mongoTemplate.save(any(MigrationCheckpoint.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+        when(mongoTemplate.find(any(Query.class), eq(Movement.class), eq(MovementStorage.STANDARD_COLLECTION)))
+                .thenReturn(Flux.just(movement("a", 1000), movement("b", 2000)), Flux.empty());
+        // "a" was already ingested into the time-series collection
+        when(mongoTemplate.find(any(Query.class), eq(Movement.class), eq(MovementStorage.TIMESERIES_COLLECTION)))
+                .thenReturn(Flux.just(movement("a", 1000)));
+
+        StepVerifier.create(migration.migrate()).expectNext(1L).verifyComplete();
+
+        assertEquals(List.of("b"), inserted());
+    }
+
+    @Test
+    void catchUpPassCopiesWhatTheSourceReceivedMeanwhile() {
+        when(mongoTemplate.findById(any(), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.just(new MigrationCheckpoint("movement_ts", new Date(1000), 0L, false, new Date())),
+                        Mono.just(new MigrationCheckpoint("movement_ts", new Date(2000), 1L, false, new Date())));
+        ArgumentCaptor<Query> source = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(source.capture(), eq(Movement.class), eq(MovementStorage.STANDARD_COLLECTION)))
+                .thenReturn(Flux.just(movement("a", 2000)), Flux.just(movement("a", 2000), movement("b", 5000)));
+        when(mongoTemplate.find(any(Query.class), eq(Movement.class), eq(MovementStorage.TIMESERIES_COLLECTION)))
+                .thenReturn(Flux.empty(), Flux.just(movement("a", 2000)));
+
+        StepVerifier.create(migration.migrate()).expectNext(2L).verifyComplete();
+
+        assertEquals(new Date(2000), source.getAllValues().get(1).getQueryObject()
+                .get("creationDate", Document.class).get("$gte"));
+        assertEquals(List.of("a", "b"), inserted());
+    }
+
+    @Test
+    void listenersWaitForARequestedMigration() {
+        when(movementStorage.isTimeSeries()).thenReturn(true);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(mongoTemplate.findById(any(), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.just(new MigrationCheckpoint("movement_ts", new Date(), 10L, true, new Date())));
+
+        assertTrue(migration.holdsListeners());
+        migration.run(new DefaultApplicationArguments("--migrate-movements"));
+
+        verify(container).start();
+    }
+
+    @Test
+    void listenersAreNotHeldWithoutAMigration() {
+        when(movementStorage.isTimeSeries()).thenReturn(true);
+        MovementStorageMigration idle = new MovementStorageMigration(mongoTemplate, movementStorage,
+                new DefaultApplicationArguments(), provider(registry));
+
+        assertFalse(idle.holdsListeners());
+    }
+
+    @Test
+    void resumeSkipsTheMovementsAlreadyCopied() {
+        Date checkpointed = new Date(2000);
+        when(mongoTemplate.findById(any(), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.just(new MigrationCheckpoint("movement_ts", checkpointed, 4L, false, new Date())));
+        ArgumentCaptor<Query> source = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(source.capture(), eq(Movement.class), eq(MovementStorage.STANDARD_COLLECTION)))
+                .thenReturn(Flux.just(movement("a", 2000), movement("b", 2000), movement("c", 3000)), Flux.empty());
+        // "a" made it into the target before the previous run stopped
+        when(mongoTemplate.find(any(Query.class), eq(Movement.class), eq(MovementStorage.TIMESERIES_COLLECTION)))
+                .thenReturn(Flux.just(movement("a", 2000)), Flux.empty());
+
+        StepVerifier.create(migration.migrate()).expectNext(2L).verifyComplete();
+
+        assertEquals(checkpointed, source.getAllValues().get(0).getQueryObject().get("creationDate", Document.class).get("$gte"));
+        assertEquals(List.of("b", "c"), inserted());
+    }
+
+    @Test
+    void completedMigrationIsNotRepeated() {
+        when(mongoTemplate.findById(any(), eq(MigrationCheckpoint.class)))
+                .thenReturn(Mono.just(new MigrationCheckpoint("movement_ts", new Date(), 10L, true, new Date())));
+
+        StepVerifier.create(migration.migrate()).expectNext(0L).verifyComplete();
+
+        verify(mongoTemplate, never()).insert(anyCollection(), eq(MovementStorage.TIMESERIES_COLLECTION));
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<KafkaListenerEndpointRegistry> provider(KafkaListenerEndpointRegistry registry) {
+        ObjectProvider<KafkaListenerEndpointRegistry> provider = mock(ObjectProvider.class);
+        doAnswer(i -> {
+            i.<Consumer<KafkaListenerEndpointRegistry>>getArgument(0).accept(registry);
+            return null;
+        }).when(provider).ifAvailable(any());
+        return provider;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> inserted() {
+        ArgumentCaptor<Collection<Movement>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate, atLeastOnce())
+                .insert(batches.capture(), eq(MovementStorage.TIMESERIES_COLLECTION));
+        return batches.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .map(Movement::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Movement movement(String id, long creationMillis) {
+        Movement movement = new Movement();
+        movement.setId(id);
+        movement.setCreationDate(new Date(creationMillis));
+        return movement;
+    }
+}
@@ -0,0 +1,44 @@
+package com.nttdata.bootcamp.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovementStorageTests {
+
+    @Test
+    void createsTheAccountTimeRangeAndNumberIndexes() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        ReactiveIndexOperations indexOps = mock(ReactiveIndexOperations.class);
+        when(mongoTemplate.indexOps(MovementStorage.STANDARD_COLLECTION)).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.just("index"));
+        MovementStorage storage = new MovementStorage(mongoTemplate);
+        ReflectionTestUtils.setField(storage, "mode", "standard");
+
+        storage.afterPropertiesSet();
+
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, times(3)).ensureIndex(indexes.capture());
+        List<Document> keys = indexes.getAllValues().stream()
+                .map(IndexDefinition::getIndexKeys)
+                .collect(Collectors.toList());
+        assertEquals(new Document("accountNumber", 1).append("creationDate", -1), keys.get(0));
+        assertEquals(new Document("creationDate", 1), keys.get(1));
+        assertEquals(new Document("movementNumber", 1), keys.get(2));
+    }
+}
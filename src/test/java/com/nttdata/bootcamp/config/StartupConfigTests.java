@@ -0,0 +1,58 @@
+package com.nttdata.bootcamp.config;
+
+import com.nttdata.bootcamp.service.impl.ExtractServiceImpl;
+import com.nttdata.bootcamp.service.impl.KafkaServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.context.annotation.AnnotationBeanNameGenerator;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupConfigTests {
+
+    @Test
+    void listenerAndScheduledBeansStayEagerUnderLazyInitialization() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("eagerMovementBeans", StartupConfig.eagerMovementBeans());
+        Map<String, Class<?>> triggered = new HashMap<>();
+        for (BeanDefinition definition : new ClassPathScanningCandidateComponentProvider(true)
+                .findCandidateComponents("com.nttdata.bootcamp")) {
+            String name = AnnotationBeanNameGenerator.INSTANCE.generateBeanName(definition, beanFactory);
+            beanFactory.registerBeanDefinition(name, definition);
+            Class<?> type = ClassUtils.resolveClassName(definition.getBeanClassName(), null);
+            if (hasTriggeredMethods(type)) {
+                triggered.put(name, type);
+            }
+        }
+
+        new LazyInitializationBeanFactoryPostProcessor().postProcessBeanFactory(beanFactory);
+
+        assertTrue(triggered.containsValue(KafkaServiceImpl.class));
+        assertTrue(triggered.containsValue(ExtractServiceImpl.class));
+        triggered.forEach((name, type) -> assertFalse(beanFactory.getBeanDefinition(name).isLazyInit(),
+                type.getSimpleName() + " would only register its listeners when first used"));
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private static boolean hasTriggeredMethods(Class<?> type) {
+        return AnnotatedElementUtils.hasAnnotation(type, KafkaListener.class)
+                || Arrays.stream(ReflectionUtils.getAllDeclaredMethods(type))
+                .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, KafkaListener.class));
+    }
+}
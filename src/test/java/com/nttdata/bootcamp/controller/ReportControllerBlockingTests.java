@@ -0,0 +1,117 @@
+package com.nttdata.bootcamp.controller;
+
+import com.nttdata.bootcamp.config.SchedulerConfig;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportControllerBlockingTests {
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install();
+    }
+
+    @Test
+    void blockHoundIsActive() {
+        StepVerifier.create(Mono.delay(Duration.ofMillis(1))
+                        .doOnNext(it -> {
+                            try {
+                                Thread.sleep(10);
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }))
+                .expectErrorMatches(e -> e.getClass().getName().contains("BlockingOperationError"))
+                .verify();
+    }
+
+    @Test
+    void blockingWorkOnTheDefaultBlockingSchedulerDoesNotBlockTheReport() {
+        reportCompletesWithBlockingWorkOn(blockingScheduler(true));
+    }
+
+    @Test
+    void blockingWorkOnThePlatformThreadSchedulerDoesNotBlockTheReport() {
+        reportCompletesWithBlockingWorkOn(blockingScheduler(false));
+    }
+
+    @Test
+    void blockingWorkLeftOnTheReportThreadIsDetected() {
+        ReportController controller = controller(blockingRead());
+
+        StepVerifier.create(controller.getReportByProduct("001", "01-01-2024", "31-01-2024")
+                        .subscribeOn(Schedulers.parallel()))
+                .expectErrorMatches(e -> e.getClass().getName().contains("BlockingOperationError"))
+                .verify();
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private static void reportCompletesWithBlockingWorkOn(Scheduler blockingScheduler) {
+        try {
+            ReportController controller = controller(blockingRead().subscribeOn(blockingScheduler));
+
+            StepVerifier.create(controller.getReportByProduct("001", "01-01-2024", "31-01-2024")
+                            .subscribeOn(Schedulers.parallel()))
+                    .expectNextMatches(dto -> "M1".equals(dto.getMovementNumber()))
+                    .verifyComplete();
+        } finally {
+            blockingScheduler.dispose();
+        }
+    }
+
+    private static Scheduler blockingScheduler(boolean virtualThreads) {
+        SchedulerConfig config = new SchedulerConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        return config.blockingScheduler(config.blockingExecutor());
+    }
+
+    // a read that sleeps, like a blocking client would
+    private static Flux<Movement> blockingRead() {
+        return Flux.defer(() -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Flux.just(movement("M1", LocalDate.of(2024, 1, 15)));
+        });
+    }
+
+    private static ReportController controller(Flux<Movement> read) {
+        MovementService movementService = mock(MovementService.class);
+        when(movementService.findByAccountNumberAndDateRange(eq("001"), any(Date.class), any(Date.class)))
+                .thenReturn(read);
+        return new ReportController(movementService, mock(VelocityService.class));
+    }
+
+    private static Movement movement(String number, LocalDate date) {
+        Movement movement = new Movement();
+        movement.setAccountNumber("001");
+        movement.setMovementNumber(number);
+        movement.setAmount(10.0);
+        movement.setCreationDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        return movement;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nttdata.bootcamp.entity.dto;
+
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountBatchRequestDtoTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void limitDefaultsToFifty() {
+        AccountBatchRequestDto request = request();
+
+        assertEquals(50, request.getLimitPerAccount());
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    void explicitNullLimitIsRejected() {
+        AccountBatchRequestDto request = request();
+        request.setLimitPerAccount(null);
+
+        Set<ConstraintViolation<AccountBatchRequestDto>> violations = validator.validate(request);
+
+        assertEquals(1, violations.size());
+        assertEquals("limitPerAccount", violations.iterator().next().getPropertyPath().toString());
+    }
+
+    private static AccountBatchRequestDto request() {
+        AccountBatchRequestDto request = new AccountBatchRequestDto();
+        request.setAccountNumbers(Collections.singletonList("001"));
+        return request;
+    }
+}
@@ -0,0 +1,177 @@
+package com.nttdata.bootcamp.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadSheddingFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void clientOverItsRateGets429() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.read.client-rate-per-second", "1"));
+
+        MockServerWebExchange first = get("/movement/findAllMovements");
+        StepVerifier.create(filter.filter(first, ok())).verifyComplete();
+        MockServerWebExchange second = get("/movement/findAllMovements");
+        StepVerifier.create(filter.filter(second, ok())).verifyComplete();
+
+        assertNull(first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+    }
+
+    @Test
+    void clientHeaderFromAnUntrustedCallerIsIgnored() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.read.client-rate-per-second", "1"));
+
+        StepVerifier.create(filter.filter(getFrom("203.0.113.7", "a"), ok())).verifyComplete();
+        MockServerWebExchange second = getFrom("203.0.113.7", "b");
+        StepVerifier.create(filter.filter(second, ok())).verifyComplete();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+    }
+
+    @Test
+    void clientHeaderFromATrustedGatewayNamesTheClient() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.read.client-rate-per-second", "1")
+                .withProperty("movement.shedding.trusted-proxies", "10.0.0.5,10.0.0.6"));
+
+        StepVerifier.create(filter.filter(getFrom("10.0.0.5", "a"), ok())).verifyComplete();
+        MockServerWebExchange other = getFrom("10.0.0.5", "b");
+        StepVerifier.create(filter.filter(other, ok())).verifyComplete();
+        MockServerWebExchange same = getFrom("10.0.0.6", "a");
+        StepVerifier.create(filter.filter(same, ok())).verifyComplete();
+
+        assertNull(other.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, same.getResponse().getStatusCode());
+    }
+
+    @Test
+    void fullBulkheadGets503() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.write.max-concurrent", "1"));
+
+        filter.filter(post("/movement/saveTransactionOrigin"), exchange -> Mono.never()).subscribe();
+        MockServerWebExchange second = post("/movement/saveTransactionOrigin");
+        StepVerifier.create(filter.filter(second, ok())).verifyComplete();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+    }
+
+    @Test
+    void unclassifiedPathsAreNotGuarded() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.read.client-rate-per-second", "1"));
+
+        StepVerifier.create(filter.filter(get("/actuator/health"), ok())).verifyComplete();
+        MockServerWebExchange exchange = get("/actuator/health");
+        StepVerifier.create(filter.filter(exchange, ok())).verifyComplete();
+
+        assertNull(exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void clientErrorsDoNotShrinkTheLimit() {
+        LoadSheddingFilter filter = filter(new MockEnvironment());
+        double before = reportLimit();
+
+        StepVerifier.create(filter.filter(get("/report/getReportByProduct/001/x/y"),
+                        exchange -> Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST))))
+                .verifyError(ResponseStatusException.class);
+
+        assertEquals(before, reportLimit());
+        assertFalse(LoadSheddingFilter.isOverload(new ResponseStatusException(HttpStatus.NOT_FOUND), null));
+    }
+
+    @Test
+    void serverErrorsShrinkTheLimit() {
+        LoadSheddingFilter filter = filter(new MockEnvironment());
+        double before = reportLimit();
+
+        StepVerifier.create(filter.filter(get("/report/findTopMovements/001"),
+                        exchange -> Mono.error(new IllegalStateException("mongo down"))))
+                .verifyError(IllegalStateException.class);
+
+        assertTrue(reportLimit() < before);
+        assertTrue(LoadSheddingFilter.isOverload(null, HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void longStreamsAreTimedToTheFirstByte() {
+        LoadSheddingFilter filter = filter(new MockEnvironment()
+                .withProperty("movement.shedding.adaptive.target-latency-ms", "200"));
+        double before = readLimit();
+
+        // first element right away, the rest of the stream well past the target
+        MockServerWebExchange exchange = get("/movement/findAllMovements");
+        WebFilterChain streaming = ex -> ex.getResponse().writeWith(
+                Flux.just(buffer("[{}"), buffer(",{}]")).delayElements(Duration.ofMillis(300)).startWith(buffer("")));
+        StepVerifier.create(filter.filter(exchange, streaming)).verifyComplete();
+
+        assertTrue(readLimit() >= before);
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private LoadSheddingFilter filter(MockEnvironment env) {
+        return new LoadSheddingFilter(env, meterRegistry);
+    }
+
+    private double readLimit() {
+        return limit("read");
+    }
+
+    private double reportLimit() {
+        return limit("report");
+    }
+
+    private double limit(String group) {
+        return meterRegistry.get("movement.http.concurrency.limit").tag("group", group).gauge().value();
+    }
+
+    private static WebFilterChain ok() {
+        return exchange -> Mono.empty();
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).header(LoadSheddingFilter.CLIENT_HEADER, "c1"));
+    }
+
+    private static MockServerWebExchange getFrom(String address, String client) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/movement/findAllMovements")
+                .remoteAddress(new InetSocketAddress(address, 40000))
+                .header(LoadSheddingFilter.CLIENT_HEADER, client));
+    }
+
+    private static MockServerWebExchange post(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post(path).header(LoadSheddingFilter.CLIENT_HEADER, "c1"));
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
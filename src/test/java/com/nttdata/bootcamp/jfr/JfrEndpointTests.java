@@ -0,0 +1,155 @@
+package com.nttdata.bootcamp.jfr;
+
+import com.nttdata.bootcamp.entity.dto.JfrRecordingDto;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrEndpointTests {
+
+    private final JfrEndpoint endpoint = new JfrEndpoint();
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(endpoint, "defaultSettings", "default");
+        ReflectionTestUtils.setField(endpoint, "maxRecordings", 1);
+        ReflectionTestUtils.setField(endpoint, "maxSizeMb", 16L);
+        ReflectionTestUtils.setField(endpoint, "maxAgeMinutes", 5L);
+        ReflectionTestUtils.setField(endpoint, "maxDurationMinutes", 1L);
+    }
+
+    @AfterEach
+    void closeRecordings() {
+        FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> created.contains(r.getId()))
+                .forEach(Recording::close);
+    }
+
+    @Test
+    void startsABoundedRecording() {
+        JfrRecordingDto dto = start("test", 600L).getBody();
+
+        assertEquals("test", dto.getName());
+        assertEquals("RUNNING", dto.getState());
+        assertTrue(dto.isStartedHere());
+        Recording recording = recording(dto.getId());
+        assertEquals(60, recording.getDuration().getSeconds());
+        assertEquals(16L * 1024 * 1024, recording.getMaxSize());
+        assertTrue(endpoint.recordings().stream().anyMatch(r -> r.getId() == dto.getId()));
+    }
+
+    @Test
+    void recordingLeavesOutEnvironmentPropertiesAndArguments() throws IOException {
+        long id = start("test", null).getBody().getId();
+        Recording recording = recording(id);
+
+        for (String event : JfrEndpoint.SENSITIVE_EVENTS) {
+            assertEquals("false", recording.getSettings().get(event + "#enabled"));
+        }
+        endpoint.stop(id);
+        Path copy = download(id);
+        try {
+            assertTrue(RecordingFile.readAllEvents(copy).stream()
+                    .noneMatch(e -> JfrEndpoint.SENSITIVE_EVENTS.contains(e.getEventType().getName())));
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    void refusesMoreThanTheRunningLimit() {
+        assertEquals(200, start("first", null).getStatus());
+
+        assertEquals(409, start("second", null).getStatus());
+    }
+
+    @Test
+    void unknownSettingsAreABadRequest() {
+        WebEndpointResponse<JfrRecordingDto> response = endpoint.start("test", "no-such-settings", null);
+
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, response.getStatus());
+    }
+
+    @Test
+    void stopKeepsTheRecordingForDownload() throws IOException {
+        long id = start("test", null).getBody().getId();
+
+        assertEquals("STOPPED", endpoint.stop(id).getBody().getState());
+
+        Path copy = download(id);
+        try {
+            assertFalse(RecordingFile.readAllEvents(copy).isEmpty());
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    void downloadOfARunningRecordingIsASnapshotAndLeavesNoTemporaryFile() throws IOException {
+        long id = start("test", null).getBody().getId();
+
+        Resource resource = endpoint.download(id).getBody();
+        Path dumped = resource.getFile().toPath();
+        assertFalse(resource.isFile());
+        try (InputStream in = resource.getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+
+        assertFalse(Files.exists(dumped));
+        assertEquals("RUNNING", recording(id).getState().name());
+    }
+
+    @Test
+    void discardClosesTheRecording() {
+        long id = start("test", null).getBody().getId();
+
+        assertEquals(WebEndpointResponse.STATUS_NO_CONTENT, endpoint.discard(id).getStatus());
+
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.discard(id).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.stop(id).getStatus());
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private WebEndpointResponse<JfrRecordingDto> start(String name, Long durationSeconds) {
+        WebEndpointResponse<JfrRecordingDto> response = endpoint.start(name, null, durationSeconds);
+        if (response.getBody() != null) {
+            created.add(response.getBody().getId());
+        }
+        return response;
+    }
+
+    private Path download(long id) throws IOException {
+        Path copy = Files.createTempFile("jfr-endpoint-", ".jfr");
+        try (InputStream in = endpoint.download(id).getBody().getInputStream()) {
+            Files.write(copy, in.readAllBytes());
+        }
+        return copy;
+    }
+
+    private static Recording recording(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> r.getId() == id)
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+}
@@ -0,0 +1,123 @@
+package com.nttdata.bootcamp.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrTraceTests {
+
+    private static final String EVENT = "com.nttdata.bootcamp.RepositoryCall";
+
+    private Recording recording;
+
+    @BeforeEach
+    void startRecording() {
+        recording = new Recording();
+        recording.enable(EVENT).withThreshold(Duration.ZERO);
+        recording.start();
+    }
+
+    @AfterEach
+    void closeRecording() {
+        recording.close();
+    }
+
+    @Test
+    void completedFluxCommitsSuccessWithItemCount() throws IOException {
+        StepVerifier.create(JfrTrace.flux(() -> event("find"), Flux.just("M1", "M2", "M3")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        RecordedEvent event = single(recorded());
+        assertEquals("find", event.getString("operation"));
+        assertEquals("001", event.getString("accountNumber"));
+        assertEquals("success", event.getString("outcome"));
+        assertEquals(3, event.getLong("items"));
+    }
+
+    @Test
+    void failedMonoCommitsError() throws IOException {
+        StepVerifier.create(JfrTrace.mono(() -> event("findOne"), Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+
+        RecordedEvent event = single(recorded());
+        assertEquals("error", event.getString("outcome"));
+        assertEquals(0, event.getLong("items"));
+    }
+
+    @Test
+    void cancelledFluxCommitsCancelWithItemsSoFar() throws IOException {
+        StepVerifier.create(JfrTrace.flux(() -> event("find"), Flux.range(1, 100)).take(2))
+                .expectNext(1, 2)
+                .verifyComplete();
+
+        RecordedEvent event = single(recorded());
+        assertEquals("cancel", event.getString("outcome"));
+        assertEquals(2, event.getLong("items"));
+    }
+
+    @Test
+    void eachSubscriptionIsOneEvent() throws IOException {
+        Mono<String> traced = JfrTrace.mono(() -> event("findOne"), Mono.just("M1"));
+
+        StepVerifier.create(traced).expectNext("M1").verifyComplete();
+        StepVerifier.create(traced).expectNext("M1").verifyComplete();
+
+        List<RecordedEvent> events = recorded();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(e -> "success".equals(e.getString("outcome"))
+                && e.getLong("items") == 1));
+    }
+
+    @Test
+    void nothingIsCommittedWhenTheEventIsDisabled() throws IOException {
+        recording.disable(EVENT);
+
+        StepVerifier.create(JfrTrace.flux(() -> event("find"), Flux.just("M1")))
+                .expectNext("M1")
+                .verifyComplete();
+
+        assertTrue(recorded().isEmpty());
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private static RepositoryCallEvent event(String operation) {
+        return new RepositoryCallEvent(operation, "001", null);
+    }
+
+    private List<RecordedEvent> recorded() throws IOException {
+        recording.stop();
+        Path file = Files.createTempFile("jfr-trace-", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> EVENT.equals(e.getEventType().getName()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events) {
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.service.impl.KafkaServiceImpl;
+import com.nttdata.bootcamp.util.Constant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsumerConcurrencyControllerTests {
+
+    private static final String TOPIC = "topic_deposit";
+
+    private ConcurrentMessageListenerContainer<Object, Object> container;
+    private ConsumerLagMonitor lagMonitor;
+    private ProcessedRecordsInterceptor processed;
+    private ConsumerConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        // real container (start() is final), never actually started
+        ContainerProperties properties = new ContainerProperties(TOPIC);
+        properties.setGroupId(Constant.KAFKA_GROUP_DEPOSIT);
+        container = spy(new ConcurrentMessageListenerContainer<>(mock(ConsumerFactory.class), properties));
+        doReturn(true).when(container).isRunning();
+        doNothing().when(container).stop(any(Runnable.class));
+
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(Constant.LISTENER_DEPOSIT)).thenReturn(container);
+
+        lagMonitor = mock(ConsumerLagMonitor.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        processed = new ProcessedRecordsInterceptor(meterRegistry);
+        controller = new ConsumerConcurrencyController(registry, lagMonitor, processed, meterRegistry);
+        ReflectionTestUtils.setField(controller, "minConcurrency", 1);
+        ReflectionTestUtils.setField(controller, "maxConcurrency", 8);
+        ReflectionTestUtils.setField(controller, "minBatch", 50);
+        ReflectionTestUtils.setField(controller, "maxBatch", 500);
+        ReflectionTestUtils.setField(controller, "targetDrainSeconds", 60L);
+        ReflectionTestUtils.setField(controller, "mongoLatencyThresholdMs", 200L);
+        ReflectionTestUtils.setField(controller, "cooldownMs", 60_000L);
+    }
+
+    @Test
+    void scalesUpToDrainTheLagCappedByPartitions() {
+        when(lagMonitor.lag(TOPIC)).thenReturn(6_000L);
+        when(lagMonitor.partitions(TOPIC)).thenReturn(4);
+
+        // 10 records/s on one consumer: 6000 / (10 * 60) = 10 consumers, capped at 4 partitions
+        controller.adjust();
+        process(100);
+        tenSecondsLater();
+        controller.adjust();
+
+        restart();
+        assertEquals(4, container.getConcurrency());
+        assertEquals("500", maxPollRecords());
+    }
+
+    @Test
+    void noLagKeepsTheMinimum() {
+        when(lagMonitor.lag(TOPIC)).thenReturn(0L);
+        when(lagMonitor.partitions(TOPIC)).thenReturn(4);
+
+        controller.adjust();
+        process(100);
+        tenSecondsLater();
+        controller.adjust();
+
+        // concurrency stays at the minimum, small polls
+        restart();
+        assertEquals(1, container.getConcurrency());
+        assertEquals("50", maxPollRecords());
+    }
+
+    @Test
+    void suspendedControllerNeverRestartsContainers() {
+        when(lagMonitor.lag(TOPIC)).thenReturn(6_000L);
+        when(lagMonitor.partitions(TOPIC)).thenReturn(4);
+
+        controller.adjust();
+        process(100);
+        tenSecondsLater();
+        controller.suspend();
+        controller.adjust();
+
+        verify(container, never()).stop(any(Runnable.class));
+    }
+
+    @Test
+    void everyListenerHasItsOwnConsumerGroup() {
+        List<String> groups = Arrays.stream(KafkaServiceImpl.class.getMethods())
+                .map(method -> method.getAnnotation(KafkaListener.class))
+                .filter(Objects::nonNull)
+                .map(KafkaListener::groupId)
+                .collect(Collectors.toList());
+
+        assertEquals(5, groups.size());
+        assertEquals(groups.size(), groups.stream().distinct().count());
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private void process(int records) {
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>(TOPIC, 0, 0L, "k", "v");
+        for (int i = 0; i < records; i++) {
+            processed.success(record, null);
+        }
+    }
+
+    private void restart() {
+        ArgumentCaptor<Runnable> restart = ArgumentCaptor.forClass(Runnable.class);
+        verify(container).stop(restart.capture());
+        restart.getValue().run();
+    }
+
+    private String maxPollRecords() {
+        return container.getContainerProperties().getKafkaConsumerProperties()
+                .getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+    }
+
+    private void tenSecondsLater() {
+        ReflectionTestUtils.setField(controller, "lastTick", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.nttdata.bootcamp.kafka;
+
+import com.nttdata.bootcamp.util.Constant;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AlterConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsumerGroupOffsetMigrationTests {
+
+    private static final TopicPartition DEPOSIT_0 = new TopicPartition("topic_deposit", 0);
+    private static final TopicPartition PAYMENT_0 = new TopicPartition("topic_payment", 0);
+
+    private Admin admin;
+    private KafkaListenerEndpointRegistry registry;
+    private ConsumerGroupOffsetMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        admin = mock(Admin.class);
+        registry = mock(KafkaListenerEndpointRegistry.class);
+        migration = new ConsumerGroupOffsetMigration(mock(KafkaAdmin.class), registry);
+        ReflectionTestUtils.setField(migration, "legacyGroup", "grupo1");
+
+        Map<TopicPartition, OffsetAndMetadata> legacy = new HashMap<>();
+        legacy.put(DEPOSIT_0, new OffsetAndMetadata(42));
+        legacy.put(PAYMENT_0, new OffsetAndMetadata(7));
+        committed("grupo1", legacy);
+        AlterConsumerGroupOffsetsResult altered = mock(AlterConsumerGroupOffsetsResult.class);
+        when(altered.all()).thenReturn(KafkaFuture.completedFuture(null));
+        when(admin.alterConsumerGroupOffsets(anyString(), anyMap())).thenReturn(altered);
+    }
+
+    @Test
+    void newGroupGetsTheOffsetsOfItsOwnTopics() throws Exception {
+        listener(Constant.LISTENER_DEPOSIT, Constant.KAFKA_GROUP_DEPOSIT, "topic_deposit");
+        committed(Constant.KAFKA_GROUP_DEPOSIT, Collections.emptyMap());
+
+        migration.copyOffsets(admin);
+
+        verify(admin).alterConsumerGroupOffsets(Constant.KAFKA_GROUP_DEPOSIT,
+                Collections.singletonMap(DEPOSIT_0, new OffsetAndMetadata(42)));
+    }
+
+    @Test
+    void groupWithOffsetsIsLeftAlone() throws Exception {
+        listener(Constant.LISTENER_DEPOSIT, Constant.KAFKA_GROUP_DEPOSIT, "topic_deposit");
+        committed(Constant.KAFKA_GROUP_DEPOSIT, Collections.singletonMap(DEPOSIT_0, new OffsetAndMetadata(50)));
+
+        migration.copyOffsets(admin);
+
+        verify(admin, never()).alterConsumerGroupOffsets(anyString(), anyMap());
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private void listener(String id, String groupId, String topic) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getGroupId()).thenReturn(groupId);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(topic));
+        when(registry.getListenerContainer(id)).thenReturn(container);
+    }
+
+    private void committed(String group, Map<TopicPartition, OffsetAndMetadata> offsets) {
+        ListConsumerGroupOffsetsResult result = mock(ListConsumerGroupOffsetsResult.class);
+        when(result.partitionsToOffsetAndMetadata()).thenReturn(KafkaFuture.completedFuture(offsets));
+        when(admin.listConsumerGroupOffsets(group)).thenReturn(result);
+    }
+}
@@ -0,0 +1,55 @@
+package com.nttdata.bootcamp.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeadLetterReplayServiceTests {
+
+    private DeadLetterReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        List<MessageListenerContainer> containers = Arrays.asList(
+                container("topic_deposit"),
+                container("topic_deposit-retry-1000"),
+                container("topic_deposit-dlt"));
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(containers);
+        service = new DeadLetterReplayService(new KafkaProperties(), registry, Schedulers.immediate());
+    }
+
+    @Test
+    void onlyTopicsWithARegisteredDltAreReplayable() {
+        assertEquals(Collections.singleton("topic_deposit"), service.replayableTopics());
+    }
+
+    @Test
+    void unknownTopicIsRejectedBeforeConnecting() {
+        for (String topic : Set.of("topic_movement", "topic_deposit-retry-1000", "__consumer_offsets")) {
+            StepVerifier.create(service.replay(topic))
+                    .expectError(IllegalArgumentException.class)
+                    .verify();
+        }
+    }
+
+    private static MessageListenerContainer container(String topic) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(topic));
+        return container;
+    }
+}
@@ -0,0 +1,26 @@
+package com.nttdata.bootcamp.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProcessedRecordsInterceptorTests {
+
+    @Test
+    void countsOnlySuccessfulRecordsPerTopic() {
+        ProcessedRecordsInterceptor interceptor = new ProcessedRecordsInterceptor(new SimpleMeterRegistry());
+        ConsumerRecord<Object, Object> deposit = new ConsumerRecord<>("topic_deposit", 0, 0L, "k", "v");
+        ConsumerRecord<Object, Object> payment = new ConsumerRecord<>("topic_payment", 0, 0L, "k", "v");
+
+        assertSame(deposit, interceptor.intercept(deposit, null));
+        interceptor.success(deposit, null);
+        interceptor.success(deposit, null);
+        interceptor.failure(payment, new IllegalStateException(), null);
+
+        assertEquals(2.0, interceptor.processed("topic_deposit"));
+        assertEquals(0.0, interceptor.processed("topic_payment"));
+    }
+}
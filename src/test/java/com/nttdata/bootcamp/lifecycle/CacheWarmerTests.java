@@ -0,0 +1,62 @@
+package com.nttdata.bootcamp.lifecycle;
+
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.service.HotAccountService;
+import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheWarmerTests {
+
+    @Test
+    void readsBalancesByKeyWithoutRecordingAccess() {
+        HotAccountService hotAccountService = mock(HotAccountService.class);
+        MovementService movementService = mock(MovementService.class);
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        VelocityService velocityService = mock(VelocityService.class);
+        when(hotAccountService.findHotAccounts(anyInt())).thenReturn(Flux.just("001", "002"));
+        when(movementService.findByAccountNumbers(anyList(), any(Date.class), isNull(), anyInt()))
+                .thenReturn(Flux.just(movement("001")));
+        when(mongoTemplate.findById("001", AccountBalance.class)).thenReturn(Mono.just(new AccountBalance()));
+        when(mongoTemplate.findById("002", AccountBalance.class)).thenReturn(Mono.empty());
+
+        CacheWarmer warmer = new CacheWarmer(hotAccountService, movementService, mongoTemplate, velocityService);
+        ReflectionTestUtils.setField(warmer, "enabled", true);
+        ReflectionTestUtils.setField(warmer, "accounts", 10);
+        ReflectionTestUtils.setField(warmer, "movementsPerAccount", 5);
+        ReflectionTestUtils.setField(warmer, "concurrency", 2);
+        ReflectionTestUtils.setField(warmer, "timeoutMs", 5000L);
+
+        warmer.run(null);
+
+        verify(mongoTemplate).findById("001", AccountBalance.class);
+        verify(mongoTemplate).findById("002", AccountBalance.class);
+        verify(velocityService).replay(eq("001"), anyList());
+        verify(hotAccountService, never()).recordAccess(any());
+    }
+
+    private static Movement movement(String accountNumber) {
+        Movement movement = new Movement();
+        movement.setAccountNumber(accountNumber);
+        movement.setAmount(10.0);
+        movement.setCreationDate(new Date());
+        return movement;
+    }
+}
@@ -0,0 +1,152 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bootcamp.config.MovementStorage;
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.BackfillCheckpoint;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.BackfillJobDto;
+import com.nttdata.bootcamp.entity.dto.BackfillRequestDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.KafkaService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BackfillServiceImplTests {
+
+    private static final String CSV = "movementNumber,accountNumber,dni,typeTransaction,amount,commission,status,creationDate\n"
+            + "M1,001,,DEPOSIT,10,0,,2023-01-10T10:00:00Z\n"
+            + "M2,002,,DEPOSIT,20,0,,2023-01-11T10:00:00Z\n";
+
+    @TempDir
+    Path root;
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private MovementStorage movementStorage;
+    private BalanceService balanceService;
+    private MongoCollection<Document> collection;
+    private BackfillServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        movementStorage = mock(MovementStorage.class);
+        balanceService = mock(BalanceService.class);
+        collection = mock(MongoCollection.class);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollectionName(Movement.class)).thenReturn("movement");
+        when(mongoTemplate.getCollection("movement")).thenReturn(Mono.just(collection));
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenReturn(Mono.just(mock(InsertManyResult.class)));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(BackfillCheckpoint.class)))
+                .thenReturn(Mono.just(mock(UpdateResult.class)));
+        when(balanceService.rebuild(anyString())).thenReturn(Mono.just(new AccountBalance()));
+
+        service = new BackfillServiceImpl(mongoTemplate, movementStorage, mock(KafkaService.class), balanceService,
+                new ObjectMapper(), Schedulers.immediate());
+        ReflectionTestUtils.setField(service, "importDir", root.toString());
+        ReflectionTestUtils.setField(service, "chunkSize", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "defaultBatchSize", 100);
+    }
+
+    // ============================
+    // IMPORT DIRECTORY
+    // ============================
+    @Test
+    void pathsOutsideTheImportDirectoryAreRejected() throws IOException {
+        Path outside = Files.writeString(Files.createTempFile("outside", ".csv"), CSV);
+        Files.createSymbolicLink(root.resolve("link.csv"), outside);
+        try {
+            for (String path : List.of("../" + outside.getFileName(), outside.toString(), "link.csv", "missing.csv")) {
+                StepVerifier.create(service.start(request(path)))
+                        .expectError(IllegalArgumentException.class)
+                        .verify();
+            }
+        } finally {
+            Files.delete(outside);
+        }
+    }
+
+    // ============================
+    // RESUME
+    // ============================
+    @Test
+    void chunkAccountsAreRecomputedBeforeTheChunkIsCheckpointed() throws IOException {
+        Files.writeString(root.resolve("history.csv"), CSV);
+        when(mongoTemplate.findById(anyString(), eq(BackfillCheckpoint.class))).thenReturn(Mono.empty());
+
+        BackfillJobDto job = service.start(request("history.csv")).block();
+
+        assertEquals(JobStatus.COMPLETED, service.findJob(job.getId()).block().getStatus());
+        InOrder order = inOrder(balanceService, mongoTemplate);
+        order.verify(balanceService).rebuild("001");
+        order.verify(mongoTemplate).upsert(any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$addToSet")), eq(BackfillCheckpoint.class));
+        verify(balanceService).rebuild("002");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumedTimeSeriesImportSkipsTheIdsAlreadyStored() throws IOException {
+        Files.writeString(root.resolve("history.csv"), CSV);
+        when(movementStorage.isTimeSeries()).thenReturn(true);
+        when(mongoTemplate.findById(anyString(), eq(BackfillCheckpoint.class))).thenReturn(Mono.just(
+                new BackfillCheckpoint("id", "history.csv", 1024L * 1024, Collections.emptyList(), 1L, null)));
+        // the first line made it in before the previous run stopped
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("movement"))).thenAnswer(invocation -> {
+            Document filter = invocation.<Query>getArgument(0).getQueryObject();
+            List<String> ids = (List<String>) ((Document) filter.get("_id")).get("$in");
+            return Flux.just(new Document("_id", ids.get(0)));
+        });
+
+        BackfillJobDto job = service.start(request("history.csv")).block();
+
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(collection).insertMany(inserted.capture(), any(InsertManyOptions.class));
+        assertEquals(1, inserted.getValue().size());
+        assertEquals(1L, service.findJob(job.getId()).block().getDuplicates());
+    }
+
+    private static BackfillRequestDto request(String path) {
+        BackfillRequestDto request = new BackfillRequestDto();
+        request.setPath(path);
+        request.setParallelism(1);
+        return request;
+    }
+}
@@ -0,0 +1,284 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.BalanceSnapshot;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.service.HotAccountService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BalanceServiceImplTests {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private BalanceServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        service = new BalanceServiceImpl(mongoTemplate, mock(HotAccountService.class));
+        ReflectionTestUtils.setField(service, "snapshotRetentionDays", 7L);
+    }
+
+    // ============================
+    // PENDING MARKS
+    // ============================
+    @Test
+    void markPendingUpsertsOnlyTheMark() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.markPending(movement("M1", "001", 25d, new Date()))).expectNext(true).verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), options.capture(),
+                eq(AccountBalance.class));
+        Document set = update.getValue().getUpdateObject();
+        assertEquals(new Document("pendingIds", "M1"), set.get("$addToSet"));
+        assertEquals(new Document("version", 1), set.get("$inc"));
+        assertTrue(options.getValue().isUpsert());
+    }
+
+    @Test
+    void markPendingTellsWhetherItWasAlreadyPending() {
+        AccountBalance previous = balance(3L);
+        previous.setPendingIds(Collections.singletonList("M1"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class))).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(service.markPending(movement("M1", "001", 25d, new Date()))).expectNext(false).verifyComplete();
+        StepVerifier.create(service.markPending(movement("M2", "001", 25d, new Date()))).expectNext(true).verifyComplete();
+    }
+
+    // ============================
+    // APPLY / REVERT
+    // ============================
+    @Test
+    void applyIncrementsAPendingMovementAndClearsItsMark() {
+        Document query = new Document();
+        Document update = capturedIncrement(() -> service.apply(movement("M1", "001", 25d, new Date(1000))), query);
+
+        assertEquals(new Document("_id", "001").append("pendingIds", "M1"), query);
+        Document inc = (Document) update.get("$inc");
+        assertEquals(25d, inc.get("balance"));
+        assertEquals(1, inc.get("movementCount"));
+        assertEquals(1, inc.get("version"));
+        assertEquals(new Document("pendingIds", "M1"), update.get("$pull"));
+        assertEquals(new Document("lastMovementDate", new Date(1000)), update.get("$max"));
+    }
+
+    @Test
+    void revertDecrementsAMovementMarkedAsReverting() {
+        Document query = new Document();
+        Document update = capturedIncrement(() -> service.revert(movement("M1", "001", 25d, new Date(1000))), query);
+
+        assertEquals(new Document("_id", "001").append("revertingIds", "M1"), query);
+        Document inc = (Document) update.get("$inc");
+        assertEquals(-25d, inc.get("balance"));
+        assertEquals(-1, inc.get("movementCount"));
+        assertEquals(new Document("revertingIds", "M1"), update.get("$pull"));
+        assertFalse(update.containsKey("$max"));
+    }
+
+    @Test
+    void applyOfAMovementNoLongerPendingChangesNothing() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.apply(movement("M1", "001", 25d, new Date()))).verifyComplete();
+    }
+
+    @Test
+    void movementWithoutAccountIsIgnored() {
+        StepVerifier.create(service.markPending(movement("M1", null, 25d, new Date()))).expectNext(false).verifyComplete();
+        StepVerifier.create(service.apply(movement("M1", null, 25d, new Date()))).verifyComplete();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class));
+    }
+
+    // ============================
+    // FIND BALANCE
+    // ============================
+    @Test
+    void findBalanceServesOnlyABuiltBalance() {
+        when(mongoTemplate.findOne(any(Query.class), eq(AccountBalance.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findBalance("001")).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(AccountBalance.class));
+        assertEquals(new Document("_id", "001").append("built", true), query.getValue().getQueryObject());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Movement.class), eq(Document.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class));
+    }
+
+    // ============================
+    // REBUILD
+    // ============================
+    @Test
+    void rebuildSumsEveryStoredMovementOverTheVersionItRead() {
+        whenRebuilt(balance(7L), balance(8L));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movement.class), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("total", 150d).append("count", 6)));
+
+        StepVerifier.create(service.rebuild("001")).expectNextCount(1).verifyComplete();
+
+        List<Query> queries = writes().getAllValues();
+        assertEquals(new Document("_id", "001").append("version", 7L), queries.get(1).getQueryObject());
+        Document set = (Document) writtenUpdates().get(1).getUpdateObject().get("$set");
+        assertEquals(150d, set.get("balance"));
+        assertEquals(6L, set.get("movementCount"));
+        assertEquals(true, set.get("built"));
+        assertEquals(Collections.emptyList(), set.get("revertingIds"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(BalanceSnapshot.class));
+    }
+
+    @Test
+    void rebuildLeavesPendingAndRevertingMovementsOut() {
+        AccountBalance current = balance(7L);
+        current.setPendingIds(Collections.singletonList("M1"));
+        current.setRevertingIds(Collections.singletonList("M2"));
+        whenRebuilt(current, balance(8L));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movement.class), eq(Document.class)))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(service.rebuild("001")).expectNextCount(1).verifyComplete();
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Movement.class), eq(Document.class));
+        Document match = (Document) aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$match");
+        assertEquals(new Document("$nin", Arrays.asList("M1", "M2")), match.get("_id"));
+        Document set = (Document) writtenUpdates().get(1).getUpdateObject().get("$set");
+        assertEquals(0d, set.get("balance"));
+    }
+
+    @Test
+    void rebuildRacingALiveChangeIsReplayed() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movement.class), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("total", 50d).append("count", 2)));
+        // read v7, the write misses (an apply bumped the version), read v8, the write lands
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class)))
+                .thenReturn(Mono.just(balance(7L)), Mono.empty(), Mono.just(balance(8L)), Mono.just(balance(9L)));
+
+        StepVerifier.create(service.rebuild("001")).expectNextCount(1).verifyComplete();
+
+        assertEquals(8L, writes().getAllValues().get(3).getQueryObject().get("version"));
+    }
+
+    @Test
+    void rebuildGivesUpWhenTheBalanceKeepsChanging() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movement.class), eq(Document.class)))
+                .thenReturn(Flux.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class)))
+                .thenAnswer(i -> ((Update) i.getArgument(1)).getUpdateObject().containsKey("$setOnInsert")
+                        ? Mono.just(balance(7L))
+                        : Mono.empty());
+
+        StepVerifier.create(service.rebuild("001"))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    // ============================
+    // SNAPSHOTS
+    // ============================
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshotIsAsOfTheLastChangeOfEachBalance() {
+        AccountBalance balance = balance(3L);
+        balance.setModificationDate(new Date(5000));
+        when(mongoTemplate.find(any(Query.class), eq(AccountBalance.class))).thenReturn(Flux.just(balance));
+        when(mongoTemplate.insertAll(anyCollection())).thenAnswer(i -> Flux.fromIterable(i.getArgument(0)));
+        when(mongoTemplate.remove(any(Query.class), eq(BalanceSnapshot.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.snapshotAll()).expectNext(1L).verifyComplete();
+
+        ArgumentCaptor<Collection<BalanceSnapshot>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate).insertAll(batch.capture());
+        BalanceSnapshot snapshot = ((List<BalanceSnapshot>) batch.getValue()).get(0);
+        assertEquals(new Date(5000), snapshot.getAsOf());
+        assertFalse(snapshot.getTakenAt().before(snapshot.getAsOf()));
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private Document capturedIncrement(Supplier<Mono<AccountBalance>> call, Document query) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class))).thenReturn(Mono.just(balance(1L)));
+
+        StepVerifier.create(call.get()).expectNextCount(1).verifyComplete();
+
+        query.putAll(writes().getValue().getQueryObject());
+        return writtenUpdates().get(0).getUpdateObject();
+    }
+
+    // the rebuild's upsert-read answers the current document, its write the result
+    private void whenRebuilt(AccountBalance current, AccountBalance written) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class)))
+                .thenReturn(Mono.just(current), Mono.just(written));
+    }
+
+    private ArgumentCaptor<Query> writes() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).findAndModify(query.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class));
+        return query;
+    }
+
+    private List<Update> writtenUpdates() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(AccountBalance.class));
+        return update.getAllValues();
+    }
+
+    private static Movement movement(String id, String accountNumber, double amount, Date creationDate) {
+        Movement movement = new Movement();
+        movement.setId(id);
+        movement.setAccountNumber(accountNumber);
+        movement.setAmount(amount);
+        movement.setCreationDate(creationDate);
+        return movement;
+    }
+
+    private static AccountBalance balance(long version) {
+        return new AccountBalance("001", 0d, 0L, null, new Date(), version);
+    }
+}
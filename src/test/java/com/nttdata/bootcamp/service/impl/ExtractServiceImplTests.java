@@ -0,0 +1,130 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.ExtractJobDto;
+import com.nttdata.bootcamp.entity.dto.ExtractRequestDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExtractServiceImplTests {
+
+    @TempDir
+    Path dir;
+
+    private ReactiveMongoTemplate reportMongoTemplate;
+    private ExtractServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        reportMongoTemplate = mock(ReactiveMongoTemplate.class);
+        // immediate scheduler: start() returns once the extract has run
+        service = new ExtractServiceImpl(reportMongoTemplate, Schedulers.immediate());
+        ReflectionTestUtils.setField(service, "extractDir", dir.toString());
+        ReflectionTestUtils.setField(service, "partitions", 2);
+        ReflectionTestUtils.setField(service, "compressionLevel", 1);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 60L);
+    }
+
+    @Test
+    void completedExtractListsOneFilePerPartition() {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class)))
+                .thenReturn(Flux.just(movement("001"), movement("002"), movement("003")));
+
+        ExtractJobDto job = service.start(request()).block();
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getFiles().size());
+        assertEquals(3L, job.getFiles().stream().mapToLong(f -> f.getRows()).sum());
+    }
+
+    @Test
+    void failureOpeningTheFilesMarksTheJobFailed() throws IOException {
+        // the extract directory is a regular file: createDirectories throws
+        Path notADir = Files.createFile(dir.resolve("blocked"));
+        ReflectionTestUtils.setField(service, "extractDir", notADir.toString());
+
+        ExtractJobDto job = service.start(request()).block();
+
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertNotNull(job.getError());
+        assertNotNull(job.getFinishDate());
+    }
+
+    @Test
+    void failedExtractDropsItsPartialFiles() {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class)))
+                .thenReturn(Flux.concat(Flux.just(movement("001")), Flux.error(new IllegalStateException("cursor lost"))));
+
+        ExtractJobDto job = service.start(request()).block();
+
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertTrue(job.getFiles().isEmpty());
+        assertFalse(Files.exists(dir.resolve(job.getId())));
+    }
+
+    @Test
+    void expiredJobsAndOrphanDirectoriesAreRemoved() throws IOException {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class))).thenReturn(Flux.just(movement("001")));
+        ExtractJobDto job = service.start(request()).block();
+        Path orphan = Files.createDirectories(dir.resolve("from-a-previous-run"));
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(0));
+        Files.setLastModifiedTime(dir.resolve(job.getId()), FileTime.fromMillis(0));
+        job.setFinishDate(new Date(0));
+
+        service.evictExpired();
+
+        StepVerifier.create(service.findJob(job.getId())).verifyComplete();
+        assertFalse(Files.exists(dir.resolve(job.getId())));
+        assertFalse(Files.exists(orphan));
+    }
+
+    @Test
+    void recentJobsAreKept() {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class))).thenReturn(Flux.just(movement("001")));
+        ExtractJobDto job = service.start(request()).block();
+
+        service.evictExpired();
+
+        StepVerifier.create(service.findJob(job.getId())).expectNextCount(1).verifyComplete();
+        assertTrue(Files.exists(dir.resolve(job.getId())));
+    }
+
+    private static ExtractRequestDto request() {
+        ExtractRequestDto request = new ExtractRequestDto();
+        request.setFrom(new Date(0));
+        request.setTo(new Date());
+        return request;
+    }
+
+    private static Movement movement(String accountNumber) {
+        Movement movement = new Movement();
+        movement.setAccountNumber(accountNumber);
+        movement.setMovementNumber("M-" + accountNumber);
+        movement.setAmount(10.0);
+        movement.setCreationDate(new Date());
+        return movement;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.nttdata.bootcamp.entity.HotAccount;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotAccountServiceImplTests {
+
+    @Test
+    void persistMergesScoresWithMax() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(HotAccount.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(mongoTemplate.remove(any(Query.class), eq(HotAccount.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+        HotAccountServiceImpl service = new HotAccountServiceImpl(mongoTemplate, 4, 1024, 10);
+        ReflectionTestUtils.setField(service, "retentionHours", 48L);
+        service.recordAccess("001");
+        service.recordAccess("001");
+
+        StepVerifier.create(service.persist()).expectNext(1L).verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(HotAccount.class));
+        Document document = update.getValue().getUpdateObject();
+        assertEquals(new Document("score", 2L), document.get("$max"));
+        assertNull(((Document) document.get("$set")).get("score"));
+    }
+}
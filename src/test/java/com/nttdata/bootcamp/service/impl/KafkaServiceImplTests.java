@@ -0,0 +1,225 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.config.MovementStorage;
+import com.nttdata.bootcamp.entity.AccountBalance;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.PaymentKafkaDto;
+import com.nttdata.bootcamp.entity.dto.VirtualCoinKafkaDto;
+import com.nttdata.bootcamp.events.EventKafka;
+import com.nttdata.bootcamp.events.PaymentCreatedEventKafka;
+import com.nttdata.bootcamp.events.VirtualCoinCreatedEventKafka;
+import com.nttdata.bootcamp.repository.MovementRepository;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.MovementService;
+import com.nttdata.bootcamp.service.VelocityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaServiceImplTests {
+
+    private MovementRepository movementRepository;
+    private MovementStorage movementStorage;
+    private BalanceService balanceService;
+    private VelocityService velocityService;
+    private KafkaSender<String, EventKafka<?>> sender;
+    private KafkaServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        movementRepository = mock(MovementRepository.class);
+        movementStorage = mock(MovementStorage.class);
+        balanceService = mock(BalanceService.class);
+        velocityService = mock(VelocityService.class);
+        sender = mock(KafkaSender.class);
+        when(sender.send(any())).thenReturn(Flux.empty());
+        when(balanceService.markPending(any(Movement.class))).thenReturn(Mono.just(true));
+        when(balanceService.unmarkPending(any(Movement.class))).thenReturn(Mono.empty());
+        when(balanceService.apply(any(Movement.class))).thenReturn(Mono.empty());
+        service = new KafkaServiceImpl(movementRepository, movementStorage, mock(MovementService.class),
+                balanceService, velocityService, sender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "topicMovement", "topic_movement");
+        ReflectionTestUtils.setField(service, "handlerTimeoutMs", 5000L);
+    }
+
+    // ============================
+    // IDEMPOTENT INGESTION
+    // ============================
+    @Test
+    void firstDeliveryAppliesBalanceAndVelocity() {
+        when(movementRepository.insert(any(Movement.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+        when(balanceService.apply(any(Movement.class))).thenReturn(Mono.just(new AccountBalance()));
+
+        service.onPayment(payment("evt-1"));
+
+        Movement inserted = insertedMovements().get(0);
+        assertEquals("PAYMENT:evt-1", inserted.getId());
+        InOrder order = inOrder(balanceService, movementRepository);
+        order.verify(balanceService).markPending(inserted);
+        order.verify(movementRepository).insert(inserted);
+        order.verify(balanceService).apply(inserted);
+        verify(velocityService).record(inserted);
+        verify(sender).send(any());
+    }
+
+    @Test
+    void redeliveryOfAnAppliedMovementOnlyRepublishesIt() {
+        Movement stored = movement("PAYMENT:evt-1");
+        when(movementRepository.insert(any(Movement.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+        when(movementRepository.findById("PAYMENT:evt-1")).thenReturn(Mono.just(stored));
+
+        service.onPayment(payment("evt-1"));
+
+        verify(balanceService).unmarkPending(any(Movement.class));
+        verify(balanceService).apply(stored);
+        verify(velocityService, never()).record(any(Movement.class));
+        verify(sender).send(any());
+    }
+
+    @Test
+    void retryAfterAPartialFailureAppliesTheStoredMovement() {
+        Movement stored = movement("PAYMENT:evt-1");
+        // a failed attempt stored it and left it pending
+        when(balanceService.markPending(any(Movement.class))).thenReturn(Mono.just(false));
+        when(movementRepository.insert(any(Movement.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+        when(movementRepository.findById("PAYMENT:evt-1")).thenReturn(Mono.just(stored));
+        when(balanceService.apply(stored)).thenReturn(Mono.just(new AccountBalance()));
+
+        service.onPayment(payment("evt-1"));
+
+        verify(balanceService, never()).unmarkPending(any(Movement.class));
+        verify(velocityService).record(stored);
+        verify(sender).send(any());
+    }
+
+    @Test
+    void timeSeriesLookupIsBoundedByAccountAndEventDate() {
+        Movement stored = movement("PAYMENT:evt-1");
+        PaymentCreatedEventKafka event = payment("evt-1");
+        event.setDate(new Date(1000));
+        when(movementStorage.isTimeSeries()).thenReturn(true);
+        when(movementRepository.findFirstByIdAndAccountNumberAndCreationDate("PAYMENT:evt-1", "001", new Date(1000)))
+                .thenReturn(Mono.just(stored));
+
+        service.onPayment(event);
+
+        verify(movementRepository, never()).insert(any(Movement.class));
+        verify(movementRepository, never()).findById(anyString());
+        verify(balanceService, never()).markPending(any(Movement.class));
+        verify(balanceService).apply(stored);
+    }
+
+    @Test
+    void timeSeriesLookupWithoutEventDateIsBoundedByAccount() {
+        when(movementStorage.isTimeSeries()).thenReturn(true);
+        when(movementRepository.findFirstByIdAndAccountNumber("PAYMENT:evt-1", "001")).thenReturn(Mono.empty());
+        when(movementRepository.insert(any(Movement.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        service.onPayment(payment("evt-1"));
+
+        assertNotNull(insertedMovements().get(0).getCreationDate());
+    }
+
+    @Test
+    void creationDateIsTheEventDate() {
+        PaymentCreatedEventKafka event = payment("evt-1");
+        event.setDate(new Date(1000));
+        when(movementRepository.insert(any(Movement.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        service.onPayment(event);
+        service.onPayment(event);
+
+        List<Movement> inserted = insertedMovements(2);
+        assertEquals(new Date(1000), inserted.get(0).getCreationDate());
+        assertEquals(new Date(1000), inserted.get(1).getCreationDate());
+    }
+
+    @Test
+    void virtualCoinRetryKeepsItsIdAndNumber() {
+        when(movementRepository.insert(any(Movement.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        service.onVirtualCoin(virtualCoin("evt-9"));
+        service.onVirtualCoin(virtualCoin("evt-9"));
+
+        List<Movement> inserted = insertedMovements(2);
+        assertEquals("VIRTUAL_COIN:evt-9", inserted.get(0).getId());
+        assertEquals(inserted.get(0).getId(), inserted.get(1).getId());
+        assertEquals(inserted.get(0).getMovementNumber(), inserted.get(1).getMovementNumber());
+    }
+
+    @Test
+    void movementIdFallsBackToTheSourceNumber() {
+        assertEquals("DEPOSIT:evt-1", KafkaServiceImpl.movementId("DEPOSIT", "evt-1", "D1"));
+        assertEquals("DEPOSIT:D1", KafkaServiceImpl.movementId("DEPOSIT", null, "D1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> KafkaServiceImpl.movementId("VIRTUAL_COIN", null, null));
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private List<Movement> insertedMovements() {
+        return insertedMovements(1);
+    }
+
+    private List<Movement> insertedMovements(int times) {
+        ArgumentCaptor<Movement> captor = ArgumentCaptor.forClass(Movement.class);
+        verify(movementRepository, times(times)).insert(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static PaymentCreatedEventKafka payment(String eventId) {
+        PaymentKafkaDto dto = new PaymentKafkaDto();
+        dto.setAccountNumber("001");
+        dto.setPaymentNumber("P1");
+        dto.setAmount(10d);
+        dto.setCommission(0d);
+        PaymentCreatedEventKafka event = new PaymentCreatedEventKafka();
+        event.setId(eventId);
+        event.setData(dto);
+        return event;
+    }
+
+    private static VirtualCoinCreatedEventKafka virtualCoin(String eventId) {
+        VirtualCoinKafkaDto dto = new VirtualCoinKafkaDto();
+        dto.setNumberAccount("001");
+        dto.setFlagDebitCard(true);
+        dto.setMount(5d);
+        VirtualCoinCreatedEventKafka event = new VirtualCoinCreatedEventKafka();
+        event.setId(eventId);
+        event.setData(dto);
+        return event;
+    }
+
+    private static Movement movement(String id) {
+        Movement movement = new Movement();
+        movement.setId(id);
+        movement.setAccountNumber("001");
+        movement.setMovementNumber("P1");
+        movement.setTypeTransaction("PAYMENT");
+        return movement;
+    }
+}
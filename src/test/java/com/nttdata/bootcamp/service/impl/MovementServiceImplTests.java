@@ -0,0 +1,263 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.repository.MovementRepository;
+import com.nttdata.bootcamp.service.BalanceService;
+import com.nttdata.bootcamp.service.HotAccountService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovementServiceImplTests {
+
+    private MovementRepository movementRepository;
+    private ReactiveMongoTemplate reportMongoTemplate;
+    private BalanceService balanceService;
+    private MovementServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository = mock(MovementRepository.class);
+        reportMongoTemplate = mock(ReactiveMongoTemplate.class);
+        balanceService = mock(BalanceService.class);
+        service = new MovementServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "movementRepository", movementRepository);
+        ReflectionTestUtils.setField(service, "balanceService", balanceService);
+        ReflectionTestUtils.setField(service, "hotAccountService", mock(HotAccountService.class));
+        ReflectionTestUtils.setField(service, "reportMongoTemplate", reportMongoTemplate);
+    }
+
+    // ============================
+    // READ ROUTING
+    // ============================
+    @Test
+    void listingReadsGoThroughTheReportTemplate() {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.findByAccountNumber("001")).verifyComplete();
+
+        verify(reportMongoTemplate).find(any(Query.class), eq(Movement.class));
+        verify(movementRepository, never()).findAll();
+    }
+
+    @Test
+    void readYourWriteLookupsStayOnThePrimary() {
+        when(movementRepository.findFirstByMovementNumber("M1")).thenReturn(Mono.just(movement("M1")));
+        when(movementRepository.countByAccountNumber("001")).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(service.findByNumber("M1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.countByAccountNumber("001")).expectNext(3L).verifyComplete();
+
+        verify(reportMongoTemplate, never()).find(any(Query.class), eq(Movement.class));
+    }
+
+    // ============================
+    // SERVER-SIDE FILTERS
+    // ============================
+    @Test
+    void findByAccountNumberFiltersOnTheServer() {
+        Document filter = capturedFilter(() -> service.findByAccountNumber("001"));
+
+        assertEquals(new Document("accountNumber", "001"), filter);
+    }
+
+    @Test
+    void findCommissionByAccountNumberFiltersPositiveCommissions() {
+        Document filter = capturedFilter(() -> service.findCommissionByAccountNumber("001"));
+
+        assertEquals("001", filter.get("accountNumber"));
+        assertEquals(new Document("$gt", 0), filter.get("commission"));
+    }
+
+    // ============================
+    // DATE RANGE
+    // ============================
+    @Test
+    void findByAccountNumberAndDateRangeKeepsOnlyMovementsStrictlyInside() {
+        serveFrom(Arrays.asList(
+                movement("M1", date(2024, 1, 15), 0d),
+                movement("M2", date(2024, 3, 15), 0d),
+                movement("EDGE", date(2024, 2, 1), 0d),
+                other("M3", date(2024, 3, 15))));
+
+        StepVerifier.create(service.findByAccountNumberAndDateRange("001", date(2024, 2, 1), date(2024, 4, 1))
+                        .map(Movement::getMovementNumber))
+                .expectNext("M2")
+                .verifyComplete();
+    }
+
+    @Test
+    void findCommissionByAccountNumberAndDateRangeAlsoRequiresACommission() {
+        serveFrom(Arrays.asList(
+                movement("M1", date(2024, 1, 15), 1.5),
+                movement("M2", date(2024, 3, 15), 0d),
+                movement("M3", date(2024, 3, 20), 2.0)));
+
+        StepVerifier.create(service.findCommissionByAccountNumberAndDateRange("001", date(2024, 2, 1), date(2024, 4, 1))
+                        .map(Movement::getMovementNumber))
+                .expectNext("M3")
+                .verifyComplete();
+    }
+
+    // ============================
+    // BATCH
+    // ============================
+    @Test
+    void batchLimitsEachAccountOnTheServer() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        when(reportMongoTemplate.find(queries.capture(), eq(Movement.class))).thenAnswer(invocation -> {
+            String account = invocation.<Query>getArgument(0).getQueryObject().getString("accountNumber");
+            Movement movement = movement(account + "-M1");
+            movement.setAccountNumber(account);
+            return Flux.just(movement);
+        });
+
+        StepVerifier.create(service.findByAccountNumbers(Arrays.asList("002", "001", "002"),
+                                date(2024, 1, 1), null, 3)
+                        .map(Movement::getMovementNumber))
+                .expectNext("001-M1", "002-M1")
+                .verifyComplete();
+
+        assertEquals(2, queries.getAllValues().size());
+        for (Query query : queries.getAllValues()) {
+            assertEquals(3, query.getLimit());
+            assertEquals(new Document("creationDate", -1), query.getSortObject());
+            assertEquals(new Document("$gte", date(2024, 1, 1)), query.getQueryObject().get("creationDate"));
+        }
+    }
+
+    // ============================
+    // SAVE / DELETE
+    // ============================
+    @Test
+    void newMovementIsMarkedPendingBeforeItIsStored() {
+        when(balanceService.markPending(any(Movement.class))).thenReturn(Mono.just(true));
+        when(movementRepository.insert(any(Movement.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+        when(balanceService.apply(any(Movement.class))).thenReturn(Mono.empty());
+        Movement movement = movement("M1");
+
+        StepVerifier.create(service.saveMovement(movement)).expectNext(movement).verifyComplete();
+
+        assertNotNull(movement.getId());
+        InOrder order = inOrder(balanceService, movementRepository);
+        order.verify(balanceService).markPending(movement);
+        order.verify(movementRepository).insert(movement);
+        order.verify(balanceService).apply(movement);
+    }
+
+    @Test
+    void deletedMovementIsMarkedRevertingBeforeItIsRemoved() {
+        Movement movement = movement("M1");
+        when(movementRepository.findFirstByMovementNumber("M1")).thenReturn(Mono.just(movement));
+        when(balanceService.markReverting(movement)).thenReturn(Mono.empty());
+        when(movementRepository.delete(movement)).thenReturn(Mono.empty());
+        when(balanceService.revert(movement)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteMovement("M1")).verifyComplete();
+
+        InOrder order = inOrder(balanceService, movementRepository);
+        order.verify(balanceService).markReverting(movement);
+        order.verify(movementRepository).delete(movement);
+        order.verify(balanceService).revert(movement);
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    // evaluates the equality, $gt and $lt conditions of the query against the fixtures
+    private void serveFrom(List<Movement> fixtures) {
+        when(reportMongoTemplate.find(any(Query.class), eq(Movement.class))).thenAnswer(invocation -> {
+            Document filter = invocation.<Query>getArgument(0).getQueryObject();
+            return Flux.fromIterable(fixtures).filter(m -> matches(filter, m));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Document filter, Movement movement) {
+        Document fields = new Document("accountNumber", movement.getAccountNumber())
+                .append("creationDate", movement.getCreationDate())
+                .append("commission", movement.getCommission());
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            Object value = fields.get(condition.getKey());
+            if (!(condition.getValue() instanceof Document)) {
+                if (!condition.getValue().equals(value)) {
+                    return false;
+                }
+                continue;
+            }
+            for (Map.Entry<String, Object> op : ((Document) condition.getValue()).entrySet()) {
+                int cmp = compare((Comparable<Object>) value, op.getValue());
+                if ("$gt".equals(op.getKey()) && cmp <= 0 || "$lt".equals(op.getKey()) && cmp >= 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int compare(Comparable<Object> value, Object bound) {
+        if (value instanceof Number && bound instanceof Number) {
+            return Double.compare(((Number) value).doubleValue(), ((Number) bound).doubleValue());
+        }
+        return value.compareTo(bound);
+    }
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private static Movement movement(String number, Date creationDate, double commission) {
+        Movement movement = movement(number);
+        movement.setCreationDate(creationDate);
+        movement.setCommission(commission);
+        return movement;
+    }
+
+    private static Movement other(String number, Date creationDate) {
+        Movement movement = movement(number, creationDate, 0d);
+        movement.setAccountNumber("002");
+        return movement;
+    }
+
+    private Document capturedFilter(Supplier<Flux<Movement>> call) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(reportMongoTemplate.find(query.capture(), eq(Movement.class))).thenReturn(Flux.empty());
+        StepVerifier.create(call.get()).verifyComplete();
+        return query.getValue().getQueryObject();
+    }
+
+    private static Movement movement(String number) {
+        Movement movement = new Movement();
+        movement.setAccountNumber("001");
+        movement.setMovementNumber(number);
+        movement.setAmount(10.0);
+        return movement;
+    }
+}
@@ -0,0 +1,160 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.ReconciliationReportDto;
+import com.nttdata.bootcamp.entity.enums.JobStatus;
+import com.nttdata.bootcamp.kafka.TopicRangeReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReconciliationServiceImplTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+    private static final Instant NOON = DAY.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant();
+
+    private TopicRangeReader topicRangeReader;
+    private ReactiveMongoTemplate reportMongoTemplate;
+    private ReconciliationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        topicRangeReader = mock(TopicRangeReader.class);
+        reportMongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(topicRangeReader.read(anyString(), any(Instant.class), any(Instant.class))).thenReturn(Flux.empty());
+        when(reportMongoTemplate.getCollectionName(Movement.class)).thenReturn("movement");
+        service = new ReconciliationServiceImpl(reportMongoTemplate, topicRangeReader, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "topicDeposit", "topic_deposit");
+        ReflectionTestUtils.setField(service, "topicWithdrawal", "topic_withdrawal");
+        ReflectionTestUtils.setField(service, "topicPayment", "topic_payment");
+        ReflectionTestUtils.setField(service, "topicCharge", "topic_charge");
+        ReflectionTestUtils.setField(service, "topicVirtualCoin", "topic_virtualCoin");
+        ReflectionTestUtils.setField(service, "topicMovement", "topic_movement");
+        ReflectionTestUtils.setField(service, "partitions", 2);
+        ReflectionTestUtils.setField(service, "graceSeconds", 300L);
+        ReflectionTestUtils.setField(service, "expectedPerPartition", 16);
+        ReflectionTestUtils.setField(service, "sampleSize", 5);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 60L);
+    }
+
+    @Test
+    void diffClassifiesEveryIdentity() throws InterruptedException {
+        // D1 matches; D2 never became a movement; W1 was stored with another amount;
+        // D9 has no source event and was never published
+        source("topic_deposit",
+                "{\"data\":{\"depositNumber\":\"D1\",\"accountNumber\":\"001\",\"amount\":10}}",
+                "{\"data\":{\"depositNumber\":\"D2\",\"accountNumber\":\"002\",\"amount\":20}}");
+        source("topic_withdrawal",
+                "{\"data\":{\"withdrawalNumber\":\"W1\",\"accountNumber\":\"001\",\"amount\":5}}");
+        when(reportMongoTemplate.find(any(Query.class), eq(Document.class), eq("movement"))).thenReturn(Flux.just(
+                movement("DEPOSIT", "D1", "001", 10d),
+                movement("WITHDRAWAL", "W1", "001", -6d),
+                movement("DEPOSIT", "D9", "003", 7d)));
+        source("topic_movement",
+                "{\"data\":{\"typeTransaction\":\"DEPOSIT\",\"movementNumber\":\"D1\",\"accountNumber\":\"001\",\"amount\":10}}",
+                "{\"data\":{\"typeTransaction\":\"WITHDRAWAL\",\"movementNumber\":\"W1\",\"accountNumber\":\"001\",\"amount\":-6}}",
+                "not json");
+
+        ReconciliationReportDto report = finished(service.start(DAY).block());
+
+        assertEquals(JobStatus.COMPLETED, report.getStatus());
+        assertEquals(3, report.getSourceEvents());
+        assertEquals(3, report.getMovements());
+        assertEquals(2, report.getPublishedEvents());
+        assertEquals(2, report.getMatched());
+        assertEquals(1, report.getMissing());
+        assertEquals(1, report.getOrphans());
+        assertEquals(0, report.getDuplicates());
+        assertEquals(1, report.getAmountMismatches());
+        assertEquals(1, report.getUnpublished());
+        assertEquals(0, report.getExtraPublished());
+        assertEquals(1, report.getUnreadable());
+        assertEquals(List.of("DEPOSIT|D2"), report.getSamples().get("missing"));
+        assertEquals(List.of("WITHDRAWAL|W1"), report.getSamples().get("amountMismatch"));
+        assertEquals(List.of("DEPOSIT|D9"), report.getSamples().get("orphan"));
+    }
+
+    @Test
+    void duplicatedMovementIsReportedOnce() throws InterruptedException {
+        source("topic_payment", "{\"data\":{\"paymentNumber\":\"P1\",\"accountNumber\":\"001\",\"amount\":3}}");
+        when(reportMongoTemplate.find(any(Query.class), eq(Document.class), eq("movement"))).thenReturn(Flux.just(
+                movement("PAYMENT", "P1", "001", 3d),
+                movement("PAYMENT", "P1", "001", 3d)));
+
+        ReconciliationReportDto report = finished(service.start(DAY).block());
+
+        assertEquals(1, report.getMatched());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(List.of("PAYMENT|P1"), report.getSamples().get("duplicate"));
+    }
+
+    @Test
+    void finishedReportsExpire() throws InterruptedException {
+        when(reportMongoTemplate.find(any(Query.class), eq(Document.class), eq("movement"))).thenReturn(Flux.empty());
+        ReconciliationReportDto report = finished(service.start(DAY).block());
+
+        service.evictExpired();
+        StepVerifier.create(service.findJob(report.getId())).expectNextCount(1).verifyComplete();
+
+        report.setFinishDate(new Date(0));
+        service.evictExpired();
+        StepVerifier.create(service.findJob(report.getId())).verifyComplete();
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private void source(String topic, String... values) {
+        List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            records.add(new ConsumerRecord<>(topic, 0, i, NOON.toEpochMilli(), TimestampType.CREATE_TIME,
+                    -1, -1, null, values[i].getBytes(StandardCharsets.UTF_8), new RecordHeaders(), Optional.empty()));
+        }
+        when(topicRangeReader.read(eq(topic), any(Instant.class), any(Instant.class)))
+                .thenReturn(Flux.fromIterable(records));
+    }
+
+    private static Document movement(String type, String number, String account, double amount) {
+        return new Document("typeTransaction", type)
+                .append("movementNumber", number)
+                .append("accountNumber", account)
+                .append("amount", amount)
+                .append("creationDate", Date.from(NOON));
+    }
+
+    // the comparison runs on the parallel scheduler
+    private static ReconciliationReportDto finished(ReconciliationReportDto report) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (report.getStatus() == JobStatus.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(report.getStatus() != JobStatus.RUNNING, "reconciliation did not finish");
+        return report;
+    }
+}
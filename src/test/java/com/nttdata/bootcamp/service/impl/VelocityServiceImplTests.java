@@ -0,0 +1,108 @@
+package com.nttdata.bootcamp.service.impl;
+
+import com.nttdata.bootcamp.entity.Movement;
+import com.nttdata.bootcamp.entity.dto.VelocityDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VelocityServiceImplTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VelocityServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new VelocityServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(service, "maxAccounts", 2);
+        ReflectionTestUtils.setField(service, "idleEvictionMinutes", 60L);
+    }
+
+    @Test
+    void recordedMovementsShowUpInTheVelocity() {
+        service.record(movement("001", 10d, null));
+        service.record(movement("001", -2.5, null));
+
+        VelocityDto velocity = service.findVelocity("001").block();
+        assertEquals(2, velocity.getLastMinuteCount());
+        assertEquals(12.5, velocity.getLastMinuteVolume());
+        assertEquals(2, velocity.getLastDayCount());
+    }
+
+    @Test
+    void accountsBeyondTheLimitAreCountedAsUntracked() {
+        service.record(movement("001", 1d, null));
+        service.record(movement("002", 1d, null));
+        service.record(movement("003", 1d, null));
+
+        assertNull(service.findVelocity("003").block().getTrackedSince());
+        assertEquals(1d, meterRegistry.get("movement.velocity.untracked").counter().count());
+        assertEquals(2d, meterRegistry.get("movement.velocity.accounts").gauge().value());
+    }
+
+    @Test
+    void replayMergesTheOlderStoredMovementsIntoALiveWindow() {
+        long now = System.currentTimeMillis();
+        Movement live = movement("001", 1d, new Date(now - 10_000));
+        service.record(live);
+
+        service.replay("001", Arrays.asList(movement("001", 5d, new Date(now - 30_000)),
+                movement("001", 5d, new Date(now - 20_000)), live));
+
+        VelocityDto velocity = service.findVelocity("001").block();
+        assertEquals(3, velocity.getLastDayCount());
+        assertEquals(11d, velocity.getLastDayVolume());
+        assertEquals(new Date(now - 30_000), velocity.getTrackedSince());
+    }
+
+    @Test
+    void replayTwiceCountsTheStoredMovementsOnce() {
+        Date tenMinutesAgo = new Date(System.currentTimeMillis() - 600_000);
+
+        service.replay("001", Collections.singletonList(movement("001", 5d, tenMinutesAgo)));
+        service.replay("001", Collections.singletonList(movement("001", 5d, tenMinutesAgo)));
+
+        assertEquals(1, service.findVelocity("001").block().getLastDayCount());
+    }
+
+    @Test
+    void replayStartsTheWindowFromStoredMovements() {
+        Date tenMinutesAgo = new Date(System.currentTimeMillis() - 600_000);
+
+        service.replay("001", Arrays.asList(movement("001", 5d, tenMinutesAgo), movement("001", 5d, tenMinutesAgo)));
+
+        VelocityDto velocity = service.findVelocity("001").block();
+        assertEquals(0, velocity.getLastMinuteCount());
+        assertEquals(2, velocity.getLastHourCount());
+        assertEquals(10d, velocity.getLastHourVolume());
+    }
+
+    @Test
+    void idleWindowsAreEvicted() {
+        service.replay("001", Collections.singletonList(
+                movement("001", 5d, new Date(System.currentTimeMillis() - 7_200_000))));
+        service.record(movement("002", 1d, null));
+
+        service.evictIdle();
+
+        assertNull(service.findVelocity("001").block().getTrackedSince());
+        assertEquals(1, service.findVelocity("002").block().getLastMinuteCount());
+    }
+
+    private static Movement movement(String accountNumber, double amount, Date creationDate) {
+        Movement movement = new Movement();
+        movement.setAccountNumber(accountNumber);
+        movement.setAmount(amount);
+        movement.setCreationDate(creationDate);
+        return movement;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nttdata.bootcamp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintTableTests {
+
+    @Test
+    void countsAndAmountsAreKeptPerSide() {
+        FingerprintTable table = new FingerprintTable(16);
+        long key = FingerprintTable.hash("DEPOSIT|D1");
+
+        table.add(key, FingerprintTable.SOURCE, 1000, true);
+        table.add(key, FingerprintTable.MOVEMENT, 1000, true);
+        table.add(key, FingerprintTable.MOVEMENT, 1000, false);
+        table.add(key, FingerprintTable.PUBLISHED, 999, false);
+
+        Map<Long, long[]> visited = visit(table);
+        assertEquals(1, table.size());
+        assertArrayEquals(new long[]{1, 2, 1, 1000, 2000, 999}, visited.get(key));
+    }
+
+    @Test
+    void identitiesOnlySeenInTheMarginsAreNotVisited() {
+        FingerprintTable table = new FingerprintTable(16);
+        long inside = FingerprintTable.hash("DEPOSIT|IN");
+        long margin = FingerprintTable.hash("DEPOSIT|MARGIN");
+
+        table.add(inside, FingerprintTable.SOURCE, 100, false);
+        table.add(inside, FingerprintTable.MOVEMENT, 100, true);
+        table.add(margin, FingerprintTable.SOURCE, 100, false);
+
+        Map<Long, long[]> visited = visit(table);
+        assertEquals(2, table.size());
+        assertTrue(visited.containsKey(inside));
+        assertFalse(visited.containsKey(margin));
+    }
+
+    @Test
+    void growingKeepsEveryEntry() {
+        FingerprintTable table = new FingerprintTable(1);
+        for (int i = 0; i < 10_000; i++) {
+            long key = FingerprintTable.hash("PAYMENT|" + i);
+            table.add(key, FingerprintTable.SOURCE, i, true);
+            table.add(key, FingerprintTable.MOVEMENT, i, true);
+        }
+
+        Map<Long, long[]> visited = visit(table);
+        assertEquals(10_000, table.size());
+        assertEquals(10_000, visited.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertArrayEquals(new long[]{1, 1, 0, i, i, 0}, visited.get(FingerprintTable.hash("PAYMENT|" + i)));
+        }
+    }
+
+    @Test
+    void hashIsStableAndNeverTheEmptyMarker() {
+        assertEquals(FingerprintTable.hash("CHARGE|C1"), FingerprintTable.hash(new StringBuilder("CHARGE|C1")));
+        assertNotEquals(FingerprintTable.hash("CHARGE|C1"), FingerprintTable.hash("CHARGE|C2"));
+        for (int i = 0; i < 100_000; i++) {
+            assertNotEquals(0L, FingerprintTable.hash(Integer.toString(i)));
+        }
+    }
+
+    private static Map<Long, long[]> visit(FingerprintTable table) {
+        Map<Long, long[]> visited = new HashMap<>();
+        table.forEach((key, sources, movements, published, sourceCents, movementCents, publishedCents) ->
+                visited.put(key, new long[]{sources, movements, published, sourceCents, movementCents, publishedCents}));
+        return visited;
+    }
+}
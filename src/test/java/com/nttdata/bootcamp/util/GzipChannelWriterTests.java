@@ -0,0 +1,75 @@
+package com.nttdata.bootcamp.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GzipChannelWriterTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsThroughGzipInputStream() throws IOException {
+        Path file = dir.resolve("rows.csv.gz");
+        // well past the 64 KiB staging buffer, with multi-byte characters split across refills
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add(i + ",cuenta-ñandú-" + (i % 97) + ",\"a,b\",€" + i * 31);
+        }
+
+        try (GzipChannelWriter writer = new GzipChannelWriter(file, 6)) {
+            for (String line : lines) {
+                writer.writeLine(line);
+            }
+            assertEquals(lines.size(), writer.getRows());
+        }
+
+        assertEquals(lines, read(file));
+    }
+
+    @Test
+    void emptyFileIsAValidGzipStream() throws IOException {
+        Path file = dir.resolve("empty.csv.gz");
+
+        new GzipChannelWriter(file, 1).close();
+
+        assertEquals(List.of(), read(file));
+    }
+
+    @Test
+    void rewritingTruncatesThePreviousContent() throws IOException {
+        Path file = dir.resolve("again.csv.gz");
+        try (GzipChannelWriter writer = new GzipChannelWriter(file, 9)) {
+            for (int i = 0; i < 5_000; i++) {
+                writer.writeLine("first-run-" + i);
+            }
+        }
+
+        try (GzipChannelWriter writer = new GzipChannelWriter(file, 9)) {
+            writer.writeLine("second");
+        }
+
+        assertEquals(List.of("second"), read(file));
+    }
+
+    // GZIPInputStream checks the CRC32 and size trailer
+    private static List<String> read(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.nttdata.bootcamp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeySketchTests {
+
+    @Test
+    void countsExactlyWithoutCollisions() {
+        HotKeySketch sketch = new HotKeySketch(4, 1024, 10);
+
+        sketch.add("001", 1);
+        sketch.add("001", 2);
+        sketch.add("002", 5);
+
+        assertEquals(3, sketch.estimate("001"));
+        assertEquals(5, sketch.estimate("002"));
+        assertEquals(0, sketch.estimate("003"));
+    }
+
+    @Test
+    void neverUndercountsWhenCountersAreShared() {
+        // narrowest table (16 counters per row) for 1000 keys: collisions everywhere
+        HotKeySketch sketch = new HotKeySketch(2, 1, 10);
+        for (int i = 0; i < 1000; i++) {
+            for (int n = 0; n <= i % 5; n++) {
+                sketch.add("acc-" + i, 1);
+            }
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sketch.estimate("acc-" + i) >= i % 5 + 1);
+        }
+    }
+
+    @Test
+    void keepsTheHeaviestKeysHottestFirst() {
+        HotKeySketch sketch = new HotKeySketch(4, 4096, 3);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("cold-" + i, 1);
+        }
+        sketch.add("warm", 20);
+        sketch.add("hot", 50);
+        sketch.add("hotter", 80);
+
+        List<Map.Entry<String, Long>> top = sketch.top();
+
+        assertEquals(List.of("hotter", "hot", "warm"),
+                top.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(80L, top.get(0).getValue());
+    }
+
+    @Test
+    void aKeyThatGrowsReplacesTheSmallestCandidate() {
+        HotKeySketch sketch = new HotKeySketch(4, 4096, 2);
+        sketch.add("a", 10);
+        sketch.add("b", 5);
+
+        sketch.add("c", 3);
+        assertFalse(keys(sketch).contains("c"));
+
+        sketch.add("c", 4);
+        assertEquals(List.of("a", "c"), keys(sketch));
+    }
+
+    @Test
+    void decayHalvesCountsAndDropsFadedKeys() {
+        HotKeySketch sketch = new HotKeySketch(4, 4096, 10);
+        sketch.add("busy", 8);
+        sketch.add("once", 1);
+
+        sketch.decay();
+
+        assertEquals(4, sketch.estimate("busy"));
+        assertEquals(0, sketch.estimate("once"));
+        assertEquals(List.of("busy"), keys(sketch));
+    }
+
+    private static List<String> keys(HotKeySketch sketch) {
+        return sketch.top().stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+}
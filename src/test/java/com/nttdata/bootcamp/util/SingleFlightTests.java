@@ -0,0 +1,154 @@
+package com.nttdata.bootcamp.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight("test", meterRegistry);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void concurrentFluxReadsShareOneQuery() {
+        TestPublisher<String> source = TestPublisher.create();
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+
+        read(source).subscribe(first::add);
+        read(source).subscribe(second::add);
+        source.emit("M1", "M2");
+
+        assertEquals(1, queries.get());
+        assertEquals(List.of("M1", "M2"), first);
+        assertEquals(List.of("M1", "M2"), second);
+        assertEquals(1.0, calls("leader"));
+        assertEquals(1.0, calls("coalesced"));
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void callerAfterTheFirstElementRunsItsOwnQuery() {
+        TestPublisher<String> source = TestPublisher.create();
+        List<String> early = new ArrayList<>();
+
+        read(source).subscribe(early::add);
+        source.next("M1");
+
+        StepVerifier.create(singleFlight.flux("find", "001", () -> {
+                    queries.incrementAndGet();
+                    return Flux.just("M1", "M2");
+                }))
+                .expectNext("M1", "M2")
+                .verifyComplete();
+
+        source.next("M2").complete();
+        assertEquals(List.of("M1", "M2"), early);
+        assertEquals(2, queries.get());
+        assertEquals(2.0, calls("leader"));
+    }
+
+    @Test
+    void errorReachesEveryCallerAndReleasesTheKey() {
+        TestPublisher<String> source = TestPublisher.create();
+        List<Throwable> errors = new ArrayList<>();
+
+        read(source).subscribe(item -> { }, errors::add);
+        read(source).subscribe(item -> { }, errors::add);
+        source.error(new IllegalStateException("boom"));
+
+        assertEquals(2, errors.size());
+        assertEquals(0.0, inFlight());
+
+        StepVerifier.create(read(Flux.just("M1"))).expectNext("M1").verifyComplete();
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void cancellingOneCallerKeepsTheSharedQueryForTheOthers() {
+        TestPublisher<String> source = TestPublisher.create();
+        List<String> full = new ArrayList<>();
+
+        StepVerifier.create(read(source).take(1))
+                .then(() -> read(source).subscribe(full::add))
+                .then(() -> source.emit("M1", "M2", "M3"))
+                .expectNext("M1")
+                .verifyComplete();
+
+        source.assertNotCancelled();
+        assertEquals(List.of("M1", "M2", "M3"), full);
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void queryIsCancelledWhenTheLastCallerLeaves() {
+        TestPublisher<String> source = TestPublisher.create();
+
+        StepVerifier.create(read(source).take(1))
+                .then(() -> source.next("M1"))
+                .expectNext("M1")
+                .verifyComplete();
+
+        source.assertCancelled();
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void concurrentMonoReadsShareOneQuery() {
+        TestPublisher<String> source = TestPublisher.create();
+        List<String> results = new ArrayList<>();
+
+        Mono<String> read = singleFlight.mono("findOne", "M1", () -> {
+            queries.incrementAndGet();
+            return source.mono();
+        });
+        read.subscribe(results::add);
+        read.subscribe(results::add);
+        source.emit("M1");
+
+        assertEquals(1, queries.get());
+        assertEquals(List.of("M1", "M1"), results);
+        assertEquals(0.0, inFlight());
+
+        StepVerifier.create(singleFlight.mono("findOne", "M1", () -> {
+                    queries.incrementAndGet();
+                    return Mono.just("M1");
+                }))
+                .expectNext("M1")
+                .verifyComplete();
+        assertEquals(2, queries.get());
+    }
+
+    // ============================
+    // HELPERS
+    // ============================
+    private Flux<String> read(TestPublisher<String> source) {
+        return read(source.flux());
+    }
+
+    private Flux<String> read(Flux<String> source) {
+        return singleFlight.flux("find", "001", () -> {
+            queries.incrementAndGet();
+            return source;
+        });
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.counter(SingleFlight.METRIC_CALLS, "operation", "find", "outcome", outcome).count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("movement.singleflight.in-flight").gauge().value();
+    }
+}
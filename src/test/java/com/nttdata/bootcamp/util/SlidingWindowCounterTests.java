@@ -0,0 +1,75 @@
+package com.nttdata.bootcamp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlidingWindowCounterTests {
+
+    private static final long ORIGIN = 1_700_000_000_000L;
+    private static final long T0 = ORIGIN + 86_400_000L;
+
+    @Test
+    void movementsCountInEveryWindowTheyFallIn() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(ORIGIN);
+
+        counter.record(T0, 1000);
+        counter.record(T0 + 500, -250);
+
+        for (int window : new int[]{SlidingWindowCounter.MINUTE, SlidingWindowCounter.HOUR, SlidingWindowCounter.DAY}) {
+            assertEquals(2, counter.count(T0 + 1000, window));
+            // withdrawals add their absolute value to the volume
+            assertEquals(1250, counter.volumeCents(T0 + 1000, window));
+        }
+    }
+
+    @Test
+    void oldBucketsLeaveTheWindowWithoutBeingWritten() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(ORIGIN);
+        counter.record(T0, 100);
+
+        assertEquals(1, counter.count(T0 + 59_000, SlidingWindowCounter.MINUTE));
+        assertEquals(0, counter.count(T0 + 60_000, SlidingWindowCounter.MINUTE));
+        assertEquals(1, counter.count(T0 + 60_000, SlidingWindowCounter.HOUR));
+        assertEquals(0, counter.count(T0 + 3_600_000, SlidingWindowCounter.HOUR));
+        assertEquals(1, counter.count(T0 + 3_600_000, SlidingWindowCounter.DAY));
+        assertEquals(0, counter.count(T0 + 86_400_000, SlidingWindowCounter.DAY));
+    }
+
+    @Test
+    void reusedBucketIsResetBeforeCounting() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(ORIGIN);
+        counter.record(T0, 100);
+        counter.record(T0, 100);
+
+        // same ring position one lap later
+        counter.record(T0 + 60_000, 300);
+
+        assertEquals(1, counter.count(T0 + 60_000, SlidingWindowCounter.MINUTE));
+        assertEquals(300, counter.volumeCents(T0 + 60_000, SlidingWindowCounter.MINUTE));
+        assertEquals(3, counter.count(T0 + 60_000, SlidingWindowCounter.HOUR));
+    }
+
+    @Test
+    void lateMovementIsOnlyCountedInTheWindowsThatStillCoverIt() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(ORIGIN);
+        counter.record(T0 + 60_000, 100);
+
+        // a minute late: its second bucket was already reused, its minute bucket was not
+        counter.record(T0, 100);
+
+        assertEquals(1, counter.count(T0 + 60_000, SlidingWindowCounter.MINUTE));
+        assertEquals(2, counter.count(T0 + 60_000, SlidingWindowCounter.HOUR));
+        assertEquals(T0, counter.getFirstRecordMillis());
+        assertEquals(T0 + 60_000, counter.getLastUpdateMillis());
+    }
+
+    @Test
+    void futureBucketsAreNotCountedYet() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(ORIGIN);
+        counter.record(T0 + 5_000, 100);
+
+        assertEquals(0, counter.count(T0, SlidingWindowCounter.MINUTE));
+        assertEquals(1, counter.count(T0 + 5_000, SlidingWindowCounter.MINUTE));
+    }
+}